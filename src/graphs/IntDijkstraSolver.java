@@ -0,0 +1,67 @@
+package graphs;
+
+import minpq.IntMinPQ;
+
+import java.util.Arrays;
+
+/**
+ * Dijkstra's algorithm implementation of the {@link IntShortestPathSolver} interface.
+ *
+ * @see IntShortestPathSolver
+ * @see DijkstraSolver
+ */
+public class IntDijkstraSolver implements IntShortestPathSolver {
+    private final int[] edgeTo;
+    private final double[] distTo;
+
+    /**
+     * Constructs a new instance by executing Dijkstra's algorithm on the graph from the start.
+     *
+     * @param graph the input graph.
+     * @param start the start vertex.
+     */
+    public IntDijkstraSolver(IntGraph graph, int start) {
+        this(graph, start, Scratch.NONE);
+    }
+
+    /**
+     * Constructs a new instance by executing Dijkstra's algorithm on the graph from the start, with the distances,
+     * backpointers and priority queue borrowed from the scratch.
+     *
+     * @param graph   the input graph.
+     * @param start   the start vertex.
+     * @param scratch the source of the arrays.
+     */
+    public IntDijkstraSolver(IntGraph graph, int start, Scratch scratch) {
+        int vertices = graph.vertices();
+        this.edgeTo = scratch.ints(0, vertices);
+        this.distTo = scratch.doubles(0, vertices);
+        Arrays.fill(edgeTo, 0, vertices, -1);
+        Arrays.fill(distTo, 0, vertices, Double.POSITIVE_INFINITY);
+        IntMinPQ pq = new IntMinPQ(vertices, scratch.ints(1, vertices + 1), scratch.ints(2, vertices),
+                scratch.doubles(1, vertices));
+        pq.add(start, 0.0);
+        distTo[start] = 0.0;
+        while (!pq.isEmpty()) {
+            int from = pq.removeMin();
+            for (int i = 0; i < graph.degree(from); i += 1) {
+                int to = graph.neighbor(from, i);
+                double newDist = distTo[from] + graph.weight(from, i);
+                if (newDist < distTo[to]) {
+                    edgeTo[to] = from;
+                    distTo[to] = newDist;
+                    if (pq.contains(to)) {
+                        pq.changePriority(to, newDist);
+                    } else {
+                        pq.add(to, newDist);
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public int[] solution(int goal) {
+        return IntShortestPathSolver.path(edgeTo, goal);
+    }
+}
@@ -0,0 +1,45 @@
+package graphs;
+
+/**
+ * Directed, edge-weighted graph whose vertices are the {@code int} ids 0 through {@link #vertices()} - 1. Edges are
+ * read one at a time by index rather than returned as {@link Edge} objects, so implementations can compute them
+ * implicitly or store them in flat arrays without allocating per vertex.
+ *
+ * @see IntShortestPathSolver
+ * @see Graph
+ */
+public interface IntGraph {
+
+    /**
+     * Returns the number of vertices in this graph.
+     *
+     * @return the number of vertices in this graph.
+     */
+    int vertices();
+
+    /**
+     * Returns the number of outgoing edges from the given vertex.
+     *
+     * @param vertex the vertex of interest.
+     * @return the number of outgoing edges from the given vertex.
+     */
+    int degree(int vertex);
+
+    /**
+     * Returns the destination of the i-th outgoing edge from the given vertex.
+     *
+     * @param vertex the vertex of interest.
+     * @param i      the index of the edge, from 0 to {@link #degree(int)} - 1.
+     * @return the destination of the i-th outgoing edge from the given vertex.
+     */
+    int neighbor(int vertex, int i);
+
+    /**
+     * Returns the weight of the i-th outgoing edge from the given vertex.
+     *
+     * @param vertex the vertex of interest.
+     * @param i      the index of the edge, from 0 to {@link #degree(int)} - 1.
+     * @return the weight of the i-th outgoing edge from the given vertex.
+     */
+    double weight(int vertex, int i);
+}
@@ -0,0 +1,133 @@
+package graphs;
+
+/**
+ * Single-source shortest paths from a start vertex to all reachable vertices in an {@link IntGraph}, with the
+ * distances and backpointers kept in primitive arrays indexed by vertex id. The arrays are borrowed from a
+ * {@link Scratch}, so a caller that runs many solvers on graphs of similar sizes can reuse them instead of allocating
+ * them on every run.
+ *
+ * @see Constructor
+ * @see Scratch
+ * @see IntGraph
+ * @see IntDijkstraSolver
+ * @see IntToposortDAGSolver
+ */
+public interface IntShortestPathSolver {
+    /**
+     * Returns the single-pair shortest path from a start vertex to the goal.
+     *
+     * @param goal the goal vertex.
+     * @return an array of vertices representing the shortest path.
+     */
+    int[] solution(int goal);
+
+    /**
+     * Constructor for {@link IntShortestPathSolver}.
+     *
+     * @see IntShortestPathSolver
+     */
+    @FunctionalInterface
+    interface Constructor {
+        /**
+         * Functional interface for running the constructor. Given an implementation of {@link IntShortestPathSolver},
+         * refer to its constructor as (for example) {@code IntDijkstraSolver::new}.
+         *
+         * @param graph   the input graph.
+         * @param start   the start vertex.
+         * @param scratch the source of the arrays used by the solver.
+         * @return an instance of {@link IntShortestPathSolver}.
+         */
+        IntShortestPathSolver run(IntGraph graph, int start, Scratch scratch);
+
+        /**
+         * Runs the constructor with arrays allocated for this run only.
+         *
+         * @param graph the input graph.
+         * @param start the start vertex.
+         * @return an instance of {@link IntShortestPathSolver}.
+         */
+        default IntShortestPathSolver run(IntGraph graph, int start) {
+            return run(graph, start, Scratch.NONE);
+        }
+    }
+
+    /**
+     * Caller-owned arrays for the per-vertex state of an {@link IntShortestPathSolver}. Each solver asks for its arrays
+     * by a small id that is distinct for each array of the same type, such as 0 for its distances and 1 for its
+     * priorities. The returned arrays may be longer than requested and hold values from a previous run, so solvers
+     * initialize every element they read. An array must not be returned again for the same id while a solution from a
+     * previous run is still in use.
+     *
+     * @see IntShortestPathSolver
+     */
+    interface Scratch {
+        /**
+         * A scratch that allocates new arrays on every request.
+         */
+        Scratch NONE = new Scratch() {
+            @Override
+            public int[] ints(int id, int length) {
+                return new int[length];
+            }
+
+            @Override
+            public double[] doubles(int id, int length) {
+                return new double[length];
+            }
+
+            @Override
+            public boolean[] booleans(int id, int length) {
+                return new boolean[length];
+            }
+        };
+
+        /**
+         * Returns an {@code int} array with the given id and at least the given length.
+         *
+         * @param id     the id of the array among the {@code int} arrays of the solver.
+         * @param length the minimum length.
+         * @return an {@code int} array with at least the given length.
+         */
+        int[] ints(int id, int length);
+
+        /**
+         * Returns a {@code double} array with the given id and at least the given length.
+         *
+         * @param id     the id of the array among the {@code double} arrays of the solver.
+         * @param length the minimum length.
+         * @return a {@code double} array with at least the given length.
+         */
+        double[] doubles(int id, int length);
+
+        /**
+         * Returns a {@code boolean} array with the given id and at least the given length.
+         *
+         * @param id     the id of the array among the {@code boolean} arrays of the solver.
+         * @param length the minimum length.
+         * @return a {@code boolean} array with at least the given length.
+         */
+        boolean[] booleans(int id, int length);
+    }
+
+    /**
+     * Returns the path to the goal by following the backpointers in {@code edgeTo}, where the start vertex and
+     * unreached vertices have a backpointer of -1.
+     *
+     * @param edgeTo the previous vertex on the shortest path to each vertex.
+     * @param goal   the goal vertex.
+     * @return an array of vertices representing the path.
+     */
+    static int[] path(int[] edgeTo, int goal) {
+        int length = 1;
+        for (int curr = goal; edgeTo[curr] != -1; curr = edgeTo[curr]) {
+            length += 1;
+        }
+        int[] path = new int[length];
+        int curr = goal;
+        for (int i = length - 1; i >= 0; i -= 1) {
+            path[i] = curr;
+            curr = edgeTo[curr];
+        }
+        return path;
+    }
+}
@@ -0,0 +1,104 @@
+package graphs;
+
+import java.util.Arrays;
+
+/**
+ * Topological sorting implementation of the {@link IntShortestPathSolver} interface for <b>directed acyclic
+ * graphs</b>. The DFS postorder is computed with an explicit stack, so long paths do not overflow the call stack.
+ *
+ * @see IntShortestPathSolver
+ * @see ToposortDAGSolver
+ */
+public class IntToposortDAGSolver implements IntShortestPathSolver {
+    private final int[] edgeTo;
+    private final double[] distTo;
+
+    /**
+     * Constructs a new instance by executing the toposort-DAG-shortest-paths algorithm on the graph from the start.
+     *
+     * @param graph the input graph.
+     * @param start the start vertex.
+     */
+    public IntToposortDAGSolver(IntGraph graph, int start) {
+        this(graph, start, Scratch.NONE);
+    }
+
+    /**
+     * Constructs a new instance by executing the toposort-DAG-shortest-paths algorithm on the graph from the start,
+     * with the distances, backpointers and DFS state borrowed from the scratch.
+     *
+     * @param graph   the input graph.
+     * @param start   the start vertex.
+     * @param scratch the source of the arrays.
+     */
+    public IntToposortDAGSolver(IntGraph graph, int start, Scratch scratch) {
+        int vertices = graph.vertices();
+        this.edgeTo = scratch.ints(0, vertices);
+        this.distTo = scratch.doubles(0, vertices);
+        Arrays.fill(edgeTo, 0, vertices, -1);
+        Arrays.fill(distTo, 0, vertices, Double.POSITIVE_INFINITY);
+        distTo[start] = 0.0;
+
+        int[] order = scratch.ints(1, vertices);
+        int size = dfsPostOrder(graph, start, order, scratch);
+        // relax the edges of each vertex in reverse postorder
+        for (int v = size - 1; v >= 0; v -= 1) {
+            int from = order[v];
+            for (int i = 0; i < graph.degree(from); i += 1) {
+                int to = graph.neighbor(from, i);
+                double newDist = distTo[from] + graph.weight(from, i);
+                if (newDist < distTo[to]) {
+                    edgeTo[to] = from;
+                    distTo[to] = newDist;
+                }
+            }
+        }
+    }
+
+    /**
+     * Stores the vertices reachable from the start into the result in DFS postorder.
+     *
+     * @param graph  the input graph.
+     * @param start  the start vertex.
+     * @param result  the destination for the vertices, with room for every vertex in the graph.
+     * @param scratch the source of the arrays for the DFS.
+     * @return the number of vertices stored in the result.
+     */
+    private static int dfsPostOrder(IntGraph graph, int start, int[] result, Scratch scratch) {
+        int vertices = graph.vertices();
+        boolean[] visited = scratch.booleans(0, vertices);
+        Arrays.fill(visited, 0, vertices, false);
+        // each stack frame is a vertex and the index of its next neighbor to visit
+        int[] stack = scratch.ints(2, vertices);
+        int[] next = scratch.ints(3, vertices);
+        int top = 0;
+        int size = 0;
+        stack[0] = start;
+        next[0] = 0;
+        visited[start] = true;
+        while (top >= 0) {
+            int vertex = stack[top];
+            if (next[top] < graph.degree(vertex)) {
+                int to = graph.neighbor(vertex, next[top]);
+                next[top] += 1;
+                if (!visited[to]) {
+                    visited[to] = true;
+                    top += 1;
+                    stack[top] = to;
+                    next[top] = 0;
+                }
+            } else {
+                // post order, adding to result after traversing
+                result[size] = vertex;
+                size += 1;
+                top -= 1;
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public int[] solution(int goal) {
+        return IntShortestPathSolver.path(edgeTo, goal);
+    }
+}
@@ -0,0 +1,189 @@
+package minpq;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Indexed binary heap of the {@code int} items 0 through capacity - 1 with extrinsic {@code double} priorities. Unlike
+ * {@link ExtrinsicMinPQ} implementations, the heap and the position of each item are kept in primitive arrays, so no
+ * objects are allocated per item. The arrays can also be owned by the caller and reused for many priority queues.
+ *
+ * @see ExtrinsicMinPQ
+ * @see OptimizedHeapMinPQ
+ */
+public class IntMinPQ {
+    /**
+     * The items in heap order, starting at index 1.
+     */
+    private final int[] heap;
+    /**
+     * The index of each item in the {@code heap}, or 0 if the item is not in this priority queue.
+     */
+    private final int[] indexOf;
+    /**
+     * The priority value of each item.
+     */
+    private final double[] priorities;
+    /**
+     * The number of elements in the heap.
+     */
+    private int size;
+
+    /**
+     * Constructs an empty instance for the items 0 through capacity - 1.
+     *
+     * @param capacity the number of possible items.
+     */
+    public IntMinPQ(int capacity) {
+        this(capacity, new int[capacity + 1], new int[capacity], new double[capacity]);
+    }
+
+    /**
+     * Constructs an empty instance for the items 0 through capacity - 1 that keeps its state in the given arrays, which
+     * may hold values from a previous use.
+     *
+     * @param capacity   the number of possible items.
+     * @param heap       the array for the items in heap order, with a length of at least capacity + 1.
+     * @param indexOf    the array for the index of each item in the heap, with a length of at least capacity.
+     * @param priorities the array for the priority value of each item, with a length of at least capacity.
+     * @throws IllegalArgumentException if an array is too short.
+     */
+    public IntMinPQ(int capacity, int[] heap, int[] indexOf, double[] priorities) {
+        if (heap.length < capacity + 1 || indexOf.length < capacity || priorities.length < capacity) {
+            throw new IllegalArgumentException("Arrays too short for capacity " + capacity);
+        }
+        this.heap = heap;
+        this.indexOf = indexOf;
+        this.priorities = priorities;
+        Arrays.fill(indexOf, 0, capacity, 0);
+        size = 0;
+    }
+
+    /**
+     * Adds an item with the given priority value.
+     *
+     * @param item     the element to add.
+     * @param priority the priority value for the item.
+     * @throws IllegalArgumentException if item is already present.
+     */
+    public void add(int item, double priority) {
+        if (contains(item)) {
+            throw new IllegalArgumentException("Already contains " + item);
+        }
+        size += 1;
+        heap[size] = item;
+        indexOf[item] = size;
+        priorities[item] = priority;
+        swim(size);
+    }
+
+    /**
+     * Returns true if the given item is in this priority queue.
+     *
+     * @param item element to be checked for containment.
+     * @return true if the given item is in this priority queue.
+     */
+    public boolean contains(int item) {
+        return indexOf[item] != 0;
+    }
+
+    /**
+     * Returns the item with the minimum priority value.
+     *
+     * @return the item with the minimum priority value.
+     * @throws NoSuchElementException if this priority queue is empty.
+     */
+    public int peekMin() {
+        if (size == 0) {
+            throw new NoSuchElementException("PQ is empty");
+        }
+        return heap[1];
+    }
+
+    /**
+     * Returns and removes the item with the minimum priority value.
+     *
+     * @return the item with the minimum priority value.
+     * @throws NoSuchElementException if this priority queue is empty.
+     */
+    public int removeMin() {
+        int result = peekMin();
+        swap(1, size);
+        size -= 1;
+        indexOf[result] = 0;
+        sink(1);
+        return result;
+    }
+
+    /**
+     * Updates the given item's priority value.
+     *
+     * @param item     the element whose associated priority value should be modified.
+     * @param priority the updated priority value.
+     * @throws NoSuchElementException if the item is not present.
+     */
+    public void changePriority(int item, double priority) {
+        if (!contains(item)) {
+            throw new NoSuchElementException("PQ does not contain " + item);
+        }
+        priorities[item] = priority;
+        swim(indexOf[item]);
+        sink(indexOf[item]);
+    }
+
+    /**
+     * Returns the number of elements in this priority queue.
+     *
+     * @return the number of elements in this priority queue.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns true if this priority queue contains no elements.
+     *
+     * @return true if this priority queue contains no elements.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Swaps the items at the two heap indices and updates their positions.
+     */
+    private void swap(int index1, int index2) {
+        int temp = heap[index1];
+        heap[index1] = heap[index2];
+        heap[index2] = temp;
+        indexOf[heap[index1]] = index1;
+        indexOf[heap[index2]] = index2;
+    }
+
+    /**
+     * Swaps the item at the heap index with its parent while its priority is smaller.
+     */
+    private void swim(int index) {
+        while (index > 1 && priorities[heap[index]] < priorities[heap[index / 2]]) {
+            swap(index, index / 2);
+            index /= 2;
+        }
+    }
+
+    /**
+     * Swaps the item at the heap index with its smaller child while its priority is larger.
+     */
+    private void sink(int index) {
+        while (2 * index <= size) {
+            int child = 2 * index;
+            if (child < size && priorities[heap[child + 1]] < priorities[heap[child]]) {
+                child += 1;
+            }
+            if (priorities[heap[index]] <= priorities[heap[child]]) {
+                break;
+            }
+            swap(index, child);
+            index = child;
+        }
+    }
+}
@@ -1,90 +1,100 @@
 package seamcarving;
 
-import graphs.Edge;
-import graphs.Graph;
+import graphs.IntGraph;
+import graphs.IntShortestPathSolver;
 import graphs.ShortestPathSolver;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Objects;
-
 /**
- * Adjacency list graph single-source {@link ShortestPathSolver} implementation of the {@link SeamFinder} interface.
+ * Adjacency list graph single-source {@link ShortestPathSolver} or {@link IntShortestPathSolver} implementation of the
+ * {@link SeamFinder} interface.
  *
- * @see Graph
+ * @see IntGraph
+ * @see IntShortestPathSolver
  * @see ShortestPathSolver
  * @see SeamFinder
  * @see SeamCarver
  */
 public class AdjacencyListSeamFinder implements SeamFinder {
     /**
-     * The constructor for the {@link ShortestPathSolver} implementation.
+     * The constructor for the {@link IntShortestPathSolver} implementation.
      */
-    private final ShortestPathSolver.Constructor<Node> sps;
+    private final IntShortestPathSolver.Constructor sps;
 
     /**
-     * Constructs an instance with the given {@link ShortestPathSolver} implementation.
+     * Constructs an instance with the given {@link ShortestPathSolver} implementation, which runs on a view of the
+     * pixel graph whose edges are created as {@link graphs.Edge} objects when requested. Use
+     * {@link #withIntSolver(IntShortestPathSolver.Constructor)} to run on the pixel graph directly.
      *
      * @param sps the {@link ShortestPathSolver} implementation.
      */
     public AdjacencyListSeamFinder(ShortestPathSolver.Constructor<Node> sps) {
+        this(Node.adapt(sps));
+    }
+
+    /**
+     * Constructs an instance with the given {@link IntShortestPathSolver} implementation.
+     *
+     * @param sps the {@link IntShortestPathSolver} implementation.
+     */
+    private AdjacencyListSeamFinder(IntShortestPathSolver.Constructor sps) {
         this.sps = sps;
     }
 
+    /**
+     * Returns an instance with the given {@link IntShortestPathSolver} implementation, which reads the edges of the
+     * pixel graph by vertex id without allocating per vertex.
+     *
+     * @param sps the {@link IntShortestPathSolver} implementation.
+     * @return an instance with the given {@link IntShortestPathSolver} implementation.
+     */
+    public static AdjacencyListSeamFinder withIntSolver(IntShortestPathSolver.Constructor sps) {
+        return new AdjacencyListSeamFinder(sps);
+    }
+
     @Override
-    public List<Integer> findSeam(Picture picture, EnergyFunction f) {
+    public int[] findSeamArray(Picture picture, EnergyFunction f) {
         PixelGraph graph = new PixelGraph(picture, f);
-        List<Node> seam = sps.run(graph, graph.source).solution(graph.sink);
-        seam = seam.subList(1, seam.size() - 1); // Skip the source and sink nodes
-        List<Integer> result = new ArrayList<>(seam.size());
-        for (Node pixel : seam) {
-            result.add(((PixelGraph.Pixel) pixel).y);
+        int[] seam = sps.run(graph, graph.source, SolverScratch.INSTANCE).solution(graph.sink);
+        int[] result = new int[seam.length - 2]; // Skip the source and sink vertices
+        for (int x = 0; x < result.length; x += 1) {
+            result[x] = seam[x + 1] % picture.height();
         }
         return result;
     }
 
     /**
-     * Adjacency list graph of {@link Pixel} vertices and {@link EnergyFunction}-weighted edges.
+     * Adjacency list graph of pixel vertices and {@link EnergyFunction}-weighted edges. The pixel (x, y) is the vertex
+     * {@code x * height + y}, followed by the source and sink vertices. All edges are materialized upfront into flat
+     * arrays, with the edges from vertex v stored from {@code offsets[v]} up to {@code offsets[v + 1]}. The arrays are
+     * borrowed from the current thread's {@link Workspace}.
      *
-     * @see Pixel
      * @see EnergyFunction
      */
-    private static class PixelGraph implements Graph<Node> {
+    private static class PixelGraph implements IntGraph {
+        private static final Workspace.Slot ENERGIES = new Workspace.Slot();
+        private static final Workspace.Slot OFFSETS = new Workspace.Slot();
+        private static final Workspace.Slot TARGETS = new Workspace.Slot();
+        private static final Workspace.Slot WEIGHTS = new Workspace.Slot();
         /**
-         * The {@link Pixel} vertices in the {@link Picture}.
+         * Source vertex for the adjacency list graph.
          */
-        private final Pixel[][] pixels;
+        private final int source;
         /**
-         * The {@link Picture} for {@link #neighbors(Node)}.
+         * Sink vertex for the adjacency list graph.
          */
-        private final Picture picture;
+        private final int sink;
         /**
-         * The {@link Picture} for {@link #neighbors(Node)}.
+         * The index of the first outgoing edge from each vertex, plus one more for the end of the last vertex.
          */
-        private final EnergyFunction f;
+        private final int[] offsets;
         /**
-         * Source {@link Node} for the adjacency list graph.
+         * The destination of each edge.
          */
-        private final Node source = new Node() {
-            @Override
-            public List<Edge<Node>> neighbors(Picture picture, EnergyFunction f) {
-                List<Edge<Node>> result = new ArrayList<>(picture.height());
-                for (int j = 0; j < picture.height(); j += 1) {
-                    Pixel to = pixels[0][j];
-                    result.add(new Edge<>(this, to, f.apply(picture, 0, j)));
-                }
-                return result;
-            }
-        };
+        private final int[] targets;
         /**
-         * Sink {@link Node} for the adjacency list graph.
+         * The weight of each edge.
          */
-        private final Node sink = new Node() {
-            @Override
-            public List<Edge<Node>> neighbors(Picture picture, EnergyFunction f) {
-                return List.of(); // Sink has no neighbors
-            }
-        };
+        private final double[] weights;
 
         /**
          * Constructs an adjacency list graph by materializing all vertices and edges.
@@ -93,88 +103,69 @@ public class AdjacencyListSeamFinder implements SeamFinder {
          * @param f       the input energy function.
          */
         private PixelGraph(Picture picture, EnergyFunction f) {
-            this.pixels = new Pixel[picture.width()][picture.height()];
-            // Starting from the rightmost column, each pixel has only a single edge to the sink (with 0 weight).
-            for (int y = 0; y < picture.height(); y += 1) {
-                Pixel from = new Pixel(picture.width() - 1, y);
-                pixels[picture.width() - 1][y] = from;
-                from.neighbors.add(new Edge<>(from, sink, 0));
-            }
-            // Starting from the next-rightmost column...
-            for (int x = picture.width() - 2; x >= 0; x -= 1) {
+            int width = picture.width();
+            int height = picture.height();
+            Workspace workspace = Workspace.get();
+            double[] energies = workspace.doubles(ENERGIES, width * height);
+            f.applyAll(picture, energies);
+            this.source = width * height;
+            this.sink = source + 1;
+            this.offsets = workspace.ints(OFFSETS, sink + 2);
+            // Each pixel has at most three edges, and the source has one edge to each pixel in the first column.
+            this.targets = workspace.ints(TARGETS, 3 * width * height + height);
+            this.weights = workspace.doubles(WEIGHTS, 3 * width * height + height);
+            int edges = 0;
+            for (int x = 0; x < width; x += 1) {
                 // Consider each pixel in the column...
-                for (int y = 0; y < picture.height(); y += 1) {
-                    Pixel from = new Pixel(x, y);
-                    pixels[x][y] = from;
+                for (int y = 0; y < height; y += 1) {
+                    offsets[x * height + y] = edges;
+                    if (x == width - 1) {
+                        // Each pixel in the rightmost column has only a single edge to the sink (with 0 weight).
+                        targets[edges] = sink;
+                        weights[edges] = 0;
+                        edges += 1;
+                        continue;
+                    }
                     // Connect the pixel to its right-up, right-middle, and right-down neighbors...
                     for (int z = y - 1; z <= y + 1; z += 1) {
                         // Only if the neighbor is in the bounds of the picture.
-                        if (0 <= z && z < picture.height()) {
-                            Pixel to = pixels[x + 1][z];
-                            from.neighbors.add(new Edge<>(from, to, f.apply(picture, x + 1, z)));
+                        if (0 <= z && z < height) {
+                            targets[edges] = (x + 1) * height + z;
+                            weights[edges] = energies[z * width + x + 1];
+                            edges += 1;
                         }
                     }
                 }
             }
-            this.picture = picture;
-            this.f = f;
+            offsets[source] = edges;
+            for (int y = 0; y < height; y += 1) {
+                targets[edges] = y;
+                weights[edges] = energies[y * width];
+                edges += 1;
+            }
+            // Sink has no neighbors
+            offsets[sink] = edges;
+            offsets[sink + 1] = edges;
         }
 
         @Override
-        public List<Edge<Node>> neighbors(Node node) {
-            return node.neighbors(picture, f);
+        public int vertices() {
+            return sink + 1;
         }
 
-        /**
-         * A pixel in the {@link PixelGraph} representation of the {@link Picture} with {@link EnergyFunction}-weighted
-         * edges to neighbors.
-         *
-         * @see PixelGraph
-         * @see Picture
-         * @see EnergyFunction
-         */
-        public class Pixel implements Node {
-            private final int x;
-            private final int y;
-            private final List<Edge<Node>> neighbors;
-
-            /**
-             * Constructs a pixel representing the (<i>x</i>, <i>y</i>) indices in the picture with no neighbors.
-             *
-             * @param x horizontal index into the picture.
-             * @param y vertical index into the picture.
-             */
-            Pixel(int x, int y) {
-                this.x = x;
-                this.y = y;
-                this.neighbors = new ArrayList<>(3);
-            }
-
-            @Override
-            public List<Edge<Node>> neighbors(Picture picture, EnergyFunction f) {
-                return neighbors;
-            }
-
-            @Override
-            public String toString() {
-                return "(" + x + ", " + y + ")";
-            }
+        @Override
+        public int degree(int vertex) {
+            return offsets[vertex + 1] - offsets[vertex];
+        }
 
-            @Override
-            public boolean equals(Object o) {
-                if (this == o) {
-                    return true;
-                } else if (!(o instanceof Pixel)) {
-                    return false;
-                }
-                Pixel other = (Pixel) o;
-                return this.x == other.x && this.y == other.y;
-            }
+        @Override
+        public int neighbor(int vertex, int i) {
+            return targets[offsets[vertex] + i];
+        }
 
-            @Override
-            public int hashCode() {
-                return Objects.hash(x, y);
-            }
+        @Override
+        public double weight(int vertex, int i) {
+            return weights[offsets[vertex] + i];
         }
     }
 }
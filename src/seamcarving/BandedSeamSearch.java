@@ -0,0 +1,89 @@
+package seamcarving;
+
+/**
+ * Dynamic programming search for the minimum-energy seam among the seams that stay within a band of cells in each line,
+ * shared by {@link PyramidSeamFinder} to refine an upsampled coarse seam and by {@link TemporalSeamFinder} to follow
+ * the previous frame's seam. Lines and cells are as in {@link DynamicProgrammingSeamFinder}, and ties are broken the
+ * same way. The costs and backpointers are stored only for the cells in the band and are borrowed from the calling
+ * thread's {@link Workspace}.
+ *
+ * @see PyramidSeamFinder
+ * @see TemporalSeamFinder
+ */
+final class BandedSeamSearch {
+    /**
+     * The costs of the cells in the band of each line, stored {@code band} cells per line.
+     */
+    private static final Workspace.Slot COSTS = new Workspace.Slot();
+    /**
+     * The offset (-1, 0, or +1) to the cheapest neighbor in the previous line for each cell in the band, laid out like
+     * {@link #COSTS}.
+     */
+    private static final Workspace.Slot EDGE_TO = new Workspace.Slot();
+
+    /**
+     * Not instantiable.
+     */
+    private BandedSeamSearch() {
+    }
+
+    /**
+     * Stores the minimum-energy seam within the bands into {@code seam} and returns its cost. The band of line i holds
+     * the cells [low[i], low[i] + band), which must lie within the line and overlap the band of the previous line by
+     * at least one cell reachable from each other.
+     *
+     * @param picture  the {@link Picture}.
+     * @param f        the {@link EnergyFunction}.
+     * @param vertical true to find a vertical seam, false to find a horizontal seam.
+     * @param low      the first cell in the band of each line.
+     * @param band     the number of cells in the band of each line.
+     * @param seam     the destination for the cell of the seam in each line.
+     * @return the total energy of the pixels in the seam.
+     */
+    static double search(Picture picture, EnergyFunction f, boolean vertical, int[] low, int band, int[] seam) {
+        int lines = vertical ? picture.height() : picture.width();
+        Workspace workspace = Workspace.get();
+        double[] costs = workspace.doubles(COSTS, lines * band);
+        byte[] edgeTo = workspace.bytes(EDGE_TO, lines * band);
+        for (int i = 0; i < lines; i += 1) {
+            int high = low[i] + band;
+            int line = i * band;
+            for (int j = low[i]; j < high; j += 1) {
+                double energy = vertical ? f.apply(picture, j, i) : f.apply(picture, i, j);
+                if (i == 0) {
+                    costs[line + j - low[i]] = energy;
+                    continue;
+                }
+                double min = Double.POSITIVE_INFINITY;
+                int mink = j;
+                int above = line - band - low[i - 1];
+                int from = Math.max(j - 1, low[i - 1]);
+                int to = Math.min(j + 1, low[i - 1] + band - 1);
+                for (int k = from; k <= to; k += 1) {
+                    if (costs[above + k] < min) {
+                        min = costs[above + k];
+                        mink = k;
+                    }
+                }
+                edgeTo[line + j - low[i]] = (byte) (mink - j);
+                costs[line + j - low[i]] = energy + min;
+            }
+        }
+
+        // Follow the backpointers from the cheapest cell in the band of the last line.
+        int last = (lines - 1) * band - low[lines - 1];
+        int minj = low[lines - 1];
+        for (int j = minj + 1; j < low[lines - 1] + band; j += 1) {
+            if (costs[last + j] < costs[last + minj]) {
+                minj = j;
+            }
+        }
+        double cost = costs[last + minj];
+        seam[lines - 1] = minj;
+        for (int i = lines - 1; i > 0; i -= 1) {
+            minj += edgeTo[i * band + minj - low[i]];
+            seam[i - 1] = minj;
+        }
+        return cost;
+    }
+}
@@ -0,0 +1,449 @@
+package seamcarving;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Batch engine that resizes many images concurrently with {@link SeamCarver}. Each {@link Job} is pipelined through
+ * three stages: decoding and encoding run on a pool of I/O threads, while carving runs on a fixed pool sized to the
+ * number of cores, so the stages of different images overlap. At most a fixed number of images are in flight at once:
+ * {@link #submit(Job)} blocks until an earlier image has been written, which bounds the memory used by decoded
+ * pictures regardless of how many jobs are queued.
+ * <p>
+ * Each stage records the number of images and pixels it processed and the time its threads spent on them, reported
+ * by {@link #stages()}.
+ *
+ * @see SeamCarver
+ * @see Job
+ * @see Stage
+ */
+public class BatchCarver implements AutoCloseable {
+    /**
+     * The executor for decoding and encoding images.
+     */
+    private final ExecutorService io;
+    /**
+     * The executor for carving images.
+     */
+    private final ExecutorService carving;
+    /**
+     * Permits for the images in flight, acquired before decoding and released after encoding.
+     */
+    private final Semaphore inFlight;
+    /**
+     * The number of permits in {@link #inFlight}.
+     */
+    private final int maxInFlight;
+    /**
+     * The {@link EnergyFunction} for every image.
+     */
+    private final EnergyFunction f;
+    /**
+     * Creates the {@link SeamFinder} for each image.
+     */
+    private final Supplier<SeamFinder> seamFinders;
+    /**
+     * The stage that reads each input file into a {@link Picture}.
+     */
+    private final Stage decode = new Stage("decode");
+    /**
+     * The stage that resizes each {@link Picture} with a {@link SeamCarver}.
+     */
+    private final Stage carve = new Stage("carve");
+    /**
+     * The stage that writes each resized {@link Picture} to its output file.
+     */
+    private final Stage encode = new Stage("encode");
+    /**
+     * The number of jobs that failed in any stage.
+     */
+    private final LongAdder failures = new LongAdder();
+
+    /**
+     * A request to resize the image in the input file to the given dimensions and write it to the output file.
+     */
+    public static class Job {
+        /**
+         * The image to resize.
+         */
+        public final File input;
+        /**
+         * The destination for the resized image, whose extension determines the format.
+         */
+        public final File output;
+        /**
+         * The target width, no larger than the width of the image.
+         */
+        public final int width;
+        /**
+         * The target height, no larger than the height of the image.
+         */
+        public final int height;
+
+        /**
+         * Constructs a job to resize the input image to the given dimensions.
+         *
+         * @param input  the image to resize.
+         * @param output the destination for the resized image.
+         * @param width  the target width.
+         * @param height the target height.
+         */
+        public Job(File input, File output, int width, int height) {
+            this.input = input;
+            this.output = output;
+            this.width = width;
+            this.height = height;
+        }
+
+        @Override
+        public String toString() {
+            return input + " -> " + output + " (" + width + "x" + height + ")";
+        }
+    }
+
+    /**
+     * Cumulative statistics for one stage of the pipeline.
+     */
+    public static class Stage {
+        /**
+         * The name of the stage.
+         */
+        private final String name;
+        /**
+         * The number of images processed.
+         */
+        private final LongAdder images = new LongAdder();
+        /**
+         * The number of pixels in the images processed.
+         */
+        private final LongAdder pixels = new LongAdder();
+        /**
+         * The total time spent by all threads processing images, in nanoseconds.
+         */
+        private final LongAdder busyNanos = new LongAdder();
+
+        /**
+         * Constructs an empty stage with the given name.
+         *
+         * @param name the name of the stage.
+         */
+        private Stage(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Records that an image with the given number of pixels took the given time.
+         *
+         * @param pixels the number of pixels in the image.
+         * @param start  the {@link System#nanoTime()} when processing started.
+         */
+        private void record(long pixels, long start) {
+            busyNanos.add(System.nanoTime() - start);
+            this.pixels.add(pixels);
+            images.increment();
+        }
+
+        /**
+         * Returns the name of the stage.
+         *
+         * @return the name of the stage.
+         */
+        public String name() {
+            return name;
+        }
+
+        /**
+         * Returns the number of images processed.
+         *
+         * @return the number of images processed.
+         */
+        public long images() {
+            return images.sum();
+        }
+
+        /**
+         * Returns the number of pixels in the images processed.
+         *
+         * @return the number of pixels in the images processed.
+         */
+        public long pixels() {
+            return pixels.sum();
+        }
+
+        /**
+         * Returns the total time spent by all threads processing images, in seconds.
+         *
+         * @return the total time spent by all threads processing images, in seconds.
+         */
+        public double busySeconds() {
+            return busyNanos.sum() / 1e9;
+        }
+
+        /**
+         * Returns the number of megapixels processed per second of thread time, which is the throughput of a single
+         * thread in this stage.
+         *
+         * @return the number of megapixels processed per second of thread time.
+         */
+        public double megapixelsPerSecond() {
+            double seconds = busySeconds();
+            return seconds == 0.0 ? 0.0 : pixels() / 1e6 / seconds;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-8s %8d images  %10.2f MP  %10.3f thread-s  %10.2f MP/thread-s",
+                    name, images(), pixels() / 1e6, busySeconds(), megapixelsPerSecond());
+        }
+    }
+
+    /**
+     * Constructs a batch carver with one carving thread per core, twice as many I/O threads, and up to two images in
+     * flight per carving thread.
+     *
+     * @param f           the {@link EnergyFunction} for every image.
+     * @param seamFinders creates the {@link SeamFinder} for each image.
+     */
+    public BatchCarver(EnergyFunction f, Supplier<SeamFinder> seamFinders) {
+        this(f, seamFinders, Runtime.getRuntime().availableProcessors(),
+                2 * Runtime.getRuntime().availableProcessors(), 2 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a batch carver with the given numbers of threads and images in flight.
+     *
+     * @param f              the {@link EnergyFunction} for every image.
+     * @param seamFinders    creates the {@link SeamFinder} for each image.
+     * @param carvingThreads the number of threads for carving.
+     * @param ioThreads      the number of threads for decoding and encoding.
+     * @param maxInFlight    the maximum number of images decoded but not yet written.
+     */
+    public BatchCarver(EnergyFunction f, Supplier<SeamFinder> seamFinders, int carvingThreads, int ioThreads,
+                       int maxInFlight) {
+        if (f == null || seamFinders == null) {
+            throw new IllegalArgumentException("Arguments cannot be null");
+        } else if (carvingThreads <= 0 || ioThreads <= 0 || maxInFlight <= 0) {
+            throw new IllegalArgumentException("Thread and in-flight counts must be positive");
+        }
+        this.f = f;
+        this.seamFinders = seamFinders;
+        this.carving = Executors.newFixedThreadPool(carvingThreads, threads("carve"));
+        this.io = Executors.newFixedThreadPool(ioThreads, threads("io"));
+        this.inFlight = new Semaphore(maxInFlight);
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Resizes every image in the input directory by the given scale and writes each result as a PNG with the same
+     * name to the output directory, then prints the throughput of each stage.
+     *
+     * @param args the input directory, the output directory and the scale, such as 0.8.
+     * @throws IOException          if an error occurs reading the input directory.
+     * @throws InterruptedException if interrupted while waiting for the jobs.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length != 3) {
+            System.err.println("Usage: BatchCarver <input directory> <output directory> <scale>");
+            return;
+        }
+        File output = new File(args[1]);
+        output.mkdirs();
+        List<Job> jobs = directory(new File(args[0]), output, Double.parseDouble(args[2]));
+        long start = System.nanoTime();
+        try (BatchCarver batch = new BatchCarver(new DualGradientEnergyFunction(), DynamicProgrammingSeamFinder::new)) {
+            batch.run(jobs);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            for (Stage stage : batch.stages()) {
+                System.out.println(stage);
+            }
+            System.out.printf("%d images in %.3f s (%.2f images/s), %d failed%n",
+                    batch.carve.images(), seconds, batch.carve.images() / seconds, batch.failures());
+        }
+    }
+
+    /**
+     * Returns a job for each image in the input directory that resizes it by the given scale and writes it as a PNG
+     * with the same name to the output directory. Only the image headers are read to find their dimensions.
+     *
+     * @param input  the input directory.
+     * @param output the output directory.
+     * @param scale  the fraction of the width and height to keep, greater than 0 and at most 1.
+     * @return a job for each image in the input directory.
+     * @throws IOException if the input directory cannot be listed.
+     * @throws IllegalArgumentException if the scale is not greater than 0 and at most 1.
+     */
+    public static List<Job> directory(File input, File output, double scale) throws IOException {
+        if (!(scale > 0.0 && scale <= 1.0)) {
+            throw new IllegalArgumentException("Scale must be greater than 0 and at most 1: " + scale);
+        }
+        File[] files = input.listFiles(File::isFile);
+        if (files == null) {
+            throw new IOException("Cannot list " + input);
+        }
+        Arrays.sort(files);
+        List<Job> jobs = new ArrayList<>(files.length);
+        for (File file : files) {
+            try (ImageInputStream stream = ImageIO.createImageInputStream(file)) {
+                Iterator<ImageReader> readers = stream == null ? null : ImageIO.getImageReaders(stream);
+                if (readers == null || !readers.hasNext()) {
+                    continue; // Not an image
+                }
+                ImageReader reader = readers.next();
+                try {
+                    reader.setInput(stream, true, true);
+                    int width = Math.max(1, (int) (reader.getWidth(0) * scale));
+                    int height = Math.max(1, (int) (reader.getHeight(0) * scale));
+                    String name = file.getName().replaceFirst("\\.[^.]*$", "") + ".png";
+                    jobs.add(new Job(file, new File(output, name), width, height));
+                } finally {
+                    reader.dispose();
+                }
+            }
+        }
+        return jobs;
+    }
+
+    /**
+     * Submits every job and waits for all of them to finish. Jobs that fail are reported to standard error and
+     * counted in {@link #failures()}.
+     *
+     * @param jobs the jobs to run.
+     * @throws InterruptedException if interrupted while waiting for the jobs.
+     */
+    public void run(List<Job> jobs) throws InterruptedException {
+        List<CompletableFuture<Void>> results = new ArrayList<>(jobs.size());
+        for (Job job : jobs) {
+            results.add(submit(job).whenComplete((ignored, error) -> {
+                if (error != null) {
+                    System.err.println("Failed " + job + ": " + error.getCause());
+                }
+            }));
+        }
+        for (CompletableFuture<Void> result : results) {
+            // Failures are already reported, so only wait for completion.
+            result.handle((ignored, error) -> null).join();
+        }
+    }
+
+    /**
+     * Submits the job to the pipeline, blocking while the maximum number of images are already in flight.
+     *
+     * @param job the job to run.
+     * @return a future that completes when the resized image has been written, or completes exceptionally if any
+     * stage fails.
+     * @throws InterruptedException if interrupted while waiting for an image to leave the pipeline.
+     */
+    public CompletableFuture<Void> submit(Job job) throws InterruptedException {
+        inFlight.acquire();
+        CompletableFuture<Void> result;
+        try {
+            result = CompletableFuture.supplyAsync(() -> {
+                long start = System.nanoTime();
+                try {
+                    Picture picture = new Picture(job.input);
+                    decode.record((long) picture.width() * picture.height(), start);
+                    return picture;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, io).thenApplyAsync(picture -> {
+                long start = System.nanoTime();
+                long pixels = (long) picture.width() * picture.height();
+                // The seam carver removes seams from the decoded picture in place.
+                new SeamCarver(picture, f, seamFinders.get()).resizeTo(job.width, job.height);
+                carve.record(pixels, start);
+                return picture;
+            }, carving).thenAcceptAsync(picture -> {
+                long start = System.nanoTime();
+                try {
+                    picture.save(job.output);
+                    encode.record((long) picture.width() * picture.height(), start);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, io);
+        } catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+        return result.whenComplete((ignored, error) -> {
+            inFlight.release();
+            if (error != null) {
+                failures.increment();
+            }
+        });
+    }
+
+    /**
+     * Returns the decoding, carving and encoding stages, in pipeline order.
+     *
+     * @return the decoding, carving and encoding stages.
+     */
+    public List<Stage> stages() {
+        return List.of(decode, carve, encode);
+    }
+
+    /**
+     * Returns the number of jobs that failed in any stage.
+     *
+     * @return the number of jobs that failed in any stage.
+     */
+    public long failures() {
+        return failures.sum();
+    }
+
+    /**
+     * Stops accepting jobs and waits for the jobs already submitted to finish. If interrupted while waiting, the jobs
+     * still in flight are cancelled and the interrupt status is restored.
+     */
+    @Override
+    public void close() {
+        try {
+            // Decoded images are queued for carving and carved images for encoding, so neither pool can stop accepting
+            // tasks until every job in flight has been written and released its permit.
+            inFlight.acquire(maxInFlight);
+            carving.shutdown();
+            carving.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            io.shutdown();
+            io.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            // Later submissions are rejected by the stopped pools rather than blocking on a permit.
+            inFlight.release(maxInFlight);
+        } catch (InterruptedException e) {
+            carving.shutdownNow();
+            io.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns a factory for daemon threads with the given name prefix.
+     *
+     * @param name the name prefix for the threads.
+     * @return a factory for daemon threads with the given name prefix.
+     */
+    private static ThreadFactory threads(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "batch-" + name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,182 @@
+package seamcarving;
+
+/**
+ * The red, green and blue components of a {@link Picture} stored as separate contiguous {@code byte} planes with the
+ * same row-major layout and stride as the picture's pixel buffer. Energy functions can read each component of a
+ * pixel with a single load instead of shifting and masking the packed color, and loops over a plane touch a quarter
+ * of the memory of the packed buffer.
+ * <p>
+ * Planes are built on request with {@link Picture#planes()} and are then kept in sync by the picture whenever a pixel
+ * is set or a seam is removed, so a {@link SeamCarver} keeps them up to date without any extra work.
+ *
+ * @see Picture#planes()
+ * @see DualGradientEnergyFunction
+ */
+public final class ChannelPlanes {
+    /**
+     * The 8-bit red components. The component of pixel (x, y) is stored at index {@code y * stride + x}.
+     */
+    final byte[] red;
+    /**
+     * The 8-bit green components, laid out like {@link #red}.
+     */
+    final byte[] green;
+    /**
+     * The 8-bit blue components, laid out like {@link #red}.
+     */
+    final byte[] blue;
+    /**
+     * The distance in each plane between the start of one row and the start of the next row.
+     */
+    final int stride;
+
+    /**
+     * Constructs the planes of the given picture by decoding each of its pixels once.
+     *
+     * @param picture the picture, which must be backed by a pixel buffer.
+     */
+    ChannelPlanes(Picture picture) {
+        this.stride = picture.stride;
+        // Cover the whole pixel buffer so that seams removed before the planes were built can be inserted again.
+        int length = picture.pixels.length;
+        this.red = new byte[length];
+        this.green = new byte[length];
+        this.blue = new byte[length];
+        for (int y = 0; y < picture.height(); y += 1) {
+            int row = y * stride;
+            for (int i = row; i < row + picture.width(); i += 1) {
+                int rgb = picture.pixels[i];
+                red[i] = (byte) (rgb >> 16);
+                green[i] = (byte) (rgb >> 8);
+                blue[i] = (byte) rgb;
+            }
+        }
+    }
+
+    /**
+     * Returns the 8-bit red component of pixel (x, y).
+     *
+     * @param x the x-index into the picture.
+     * @param y the y-index into the picture.
+     * @return the 8-bit red component of pixel (x, y).
+     */
+    public int red(int x, int y) {
+        return red[y * stride + x] & 0xFF;
+    }
+
+    /**
+     * Returns the 8-bit green component of pixel (x, y).
+     *
+     * @param x the x-index into the picture.
+     * @param y the y-index into the picture.
+     * @return the 8-bit green component of pixel (x, y).
+     */
+    public int green(int x, int y) {
+        return green[y * stride + x] & 0xFF;
+    }
+
+    /**
+     * Returns the 8-bit blue component of pixel (x, y).
+     *
+     * @param x the x-index into the picture.
+     * @param y the y-index into the picture.
+     * @return the 8-bit blue component of pixel (x, y).
+     */
+    public int blue(int x, int y) {
+        return blue[y * stride + x] & 0xFF;
+    }
+
+    /**
+     * Updates the components of pixel (x, y) to match the given color.
+     *
+     * @param x   the x-index into the picture.
+     * @param y   the y-index into the picture.
+     * @param rgb the 24-bit red-green-blue (RGB) color for the pixel (x, y).
+     */
+    void set(int x, int y, int rgb) {
+        int i = y * stride + x;
+        red[i] = (byte) (rgb >> 16);
+        green[i] = (byte) (rgb >> 8);
+        blue[i] = (byte) rgb;
+    }
+
+    /**
+     * Removes the vertical seam from each plane in place, as {@link Picture#removeVertical(int[])} does for the pixel
+     * buffer. Must be called before the picture's width shrinks.
+     *
+     * @param seam   the horizontal pixel index to remove from each row.
+     * @param width  the width of the picture before the seam is removed.
+     * @param height the height of the picture.
+     */
+    void removeVertical(int[] seam, int width, int height) {
+        for (int y = 0; y < height; y += 1) {
+            int from = y * stride + seam[y];
+            int length = width - seam[y] - 1;
+            System.arraycopy(red, from + 1, red, from, length);
+            System.arraycopy(green, from + 1, green, from, length);
+            System.arraycopy(blue, from + 1, blue, from, length);
+        }
+    }
+
+    /**
+     * Removes the horizontal seam from each plane in place, as {@link Picture#removeHorizontal(int[])} does for the
+     * pixel buffer. Must be called before the picture's height shrinks.
+     *
+     * @param seam   the vertical pixel index to remove from each column.
+     * @param width  the width of the picture.
+     * @param height the height of the picture before the seam is removed.
+     */
+    void removeHorizontal(int[] seam, int width, int height) {
+        for (int y = 0; y < height - 1; y += 1) {
+            int row = y * stride;
+            for (int x = 0; x < width; x += 1) {
+                if (seam[x] <= y) {
+                    red[row + x] = red[row + stride + x];
+                    green[row + x] = green[row + stride + x];
+                    blue[row + x] = blue[row + stride + x];
+                }
+            }
+        }
+    }
+
+    /**
+     * Opens a gap in each plane for the vertical seam, undoing {@link #removeVertical(int[], int, int)} except for the
+     * components of the seam pixels, which are then {@link #set(int, int, int)}. Must be called before the picture's
+     * width grows.
+     *
+     * @param seam   the horizontal pixel index to insert into each row.
+     * @param width  the width of the picture before the seam is inserted.
+     * @param height the height of the picture.
+     */
+    void insertVertical(int[] seam, int width, int height) {
+        for (int y = 0; y < height; y += 1) {
+            int from = y * stride + seam[y];
+            int length = width - seam[y];
+            System.arraycopy(red, from, red, from + 1, length);
+            System.arraycopy(green, from, green, from + 1, length);
+            System.arraycopy(blue, from, blue, from + 1, length);
+        }
+    }
+
+    /**
+     * Opens a gap in each plane for the horizontal seam, undoing {@link #removeHorizontal(int[], int, int)} except for
+     * the components of the seam pixels, which are then {@link #set(int, int, int)}. Must be called before the
+     * picture's height grows.
+     *
+     * @param seam   the vertical pixel index to insert into each column.
+     * @param width  the width of the picture.
+     * @param height the height of the picture before the seam is inserted.
+     */
+    void insertHorizontal(int[] seam, int width, int height) {
+        for (int y = height; y > 0; y -= 1) {
+            int row = y * stride;
+            for (int x = 0; x < width; x += 1) {
+                if (seam[x] < y) {
+                    red[row + x] = red[row - stride + x];
+                    green[row + x] = green[row - stride + x];
+                    blue[row + x] = blue[row - stride + x];
+                }
+            }
+        }
+    }
+}
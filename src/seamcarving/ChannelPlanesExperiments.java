@@ -0,0 +1,72 @@
+package seamcarving;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Compare the time to compute all energies and to resize pictures with and without {@link ChannelPlanes}.
+ *
+ * @see ChannelPlanes
+ * @see DualGradientEnergyFunction
+ */
+class ChannelPlanesExperiments {
+    /**
+     * The base directory path for the images.
+     */
+    private static final String BASE_PATH = "data/seamcarving/";
+    /**
+     * The image files (.png) in the {@link #BASE_PATH} to resize.
+     */
+    private static final String[] FILES = new String[]{
+            "chameleon",
+            "HJoceanSmall"
+    };
+    /**
+     * Fraction of the width and height to remove from each image.
+     */
+    private static final double SCALE = 0.2;
+    /**
+     * Number of trials per image. Making this smaller means experiments run faster.
+     */
+    private static final int NUM_TRIALS = 5;
+
+    public static void main(String[] args) throws IOException {
+        EnergyFunction f = new DualGradientEnergyFunction();
+        System.out.printf("%-20s  %15s  %15s  %15s  %15s%n",
+                "File", "Packed all (s)", "Planes all (s)", "Packed (s)", "Planes (s)");
+        for (String fileName : FILES) {
+            Picture picture = new Picture(new File(BASE_PATH + fileName + ".png"));
+            int width = (int) (picture.width() * (1 - SCALE));
+            int height = (int) (picture.height() * (1 - SCALE));
+            double[] energies = new double[picture.width() * picture.height()];
+            Picture planar = new Picture(picture);
+            planar.planes();
+            double packedAll = 0.0;
+            double planesAll = 0.0;
+            double packed = 0.0;
+            double planes = 0.0;
+            for (int i = 0; i < NUM_TRIALS; i += 1) {
+                long start = System.nanoTime();
+                f.applyAll(picture, energies);
+                packedAll += (System.nanoTime() - start) / 1e9;
+
+                start = System.nanoTime();
+                f.applyAll(planar, energies);
+                planesAll += (System.nanoTime() - start) / 1e9;
+
+                start = System.nanoTime();
+                new SeamCarver(new Picture(picture), f, new DynamicProgrammingSeamFinder()).resizeTo(width, height);
+                packed += (System.nanoTime() - start) / 1e9;
+
+                // Building the planes is part of the cost of carving with them.
+                start = System.nanoTime();
+                Picture copy = new Picture(picture);
+                copy.planes();
+                new SeamCarver(copy, f, new DynamicProgrammingSeamFinder()).resizeTo(width, height);
+                planes += (System.nanoTime() - start) / 1e9;
+            }
+            System.out.printf("%-20s  %15.6f  %15.6f  %15.4f  %15.4f%n", fileName + ".png", packedAll / NUM_TRIALS,
+                    planesAll / NUM_TRIALS, packed / NUM_TRIALS, planes / NUM_TRIALS);
+        }
+    }
+}
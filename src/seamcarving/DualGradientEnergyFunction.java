@@ -2,11 +2,36 @@ package seamcarving;
 
 /**
  * Dual-gradient implementation of the {@link EnergyFunction} interface for {@link Picture} objects.
+ * <p>
+ * The bulk {@link #applyRow(Picture, int, double[], int)} and {@link #applyAll(Picture, double[])} methods decode each
+ * neighboring row once and run branch-free loops over the interior columns, which the JIT compiler can unroll and
+ * vectorize. Since the dual gradient treats rows and columns alike, {@link #applyColumn(Picture, int, double[], int)}
+ * gathers the column and its two neighboring columns in one pass and runs the same loops over them. All gradients are computed with exact {@code int} arithmetic, so the bulk methods return exactly the same
+ * values as {@link #apply(Picture, int, int)}, and the fixed-point energies of {@link FixedPointEnergyFunction} are the
+ * same squared gradients with a truncated fixed-point square root. Their row buffers are borrowed from the calling thread's
+ * {@link Workspace}. If the picture has {@link ChannelPlanes}, every method reads the components straight from the
+ * planes instead of decoding packed pixels.
  *
  * @see EnergyFunction
  * @see Picture
  */
-public class DualGradientEnergyFunction implements EnergyFunction {
+public class DualGradientEnergyFunction implements FixedPointEnergyFunction {
+    /**
+     * The decoded colors of the row whose energies are computed, or of the row above it in the sliding window.
+     */
+    private static final Workspace.Slot ROW = new Workspace.Slot();
+    /**
+     * The decoded colors of the first neighboring row.
+     */
+    private static final Workspace.Slot OTHER1 = new Workspace.Slot();
+    /**
+     * The decoded colors of the second neighboring row.
+     */
+    private static final Workspace.Slot OTHER2 = new Workspace.Slot();
+    /**
+     * The squared gradients of the row whose energies are computed.
+     */
+    private static final Workspace.Slot GRADIENTS = new Workspace.Slot();
     /**
      * Returns the horizontal derivative for the (x, y) pixel in the picture.
      *
@@ -15,7 +40,7 @@ public class DualGradientEnergyFunction implements EnergyFunction {
      * @param y       the y-index into the picture.
      * @return the horizontal derivative for the (x, y) pixel in the picture.
      */
-    private static double horizontalDerivative(Picture picture, int x, int y) {
+    private static int horizontalDerivative(Picture picture, int x, int y) {
         if (x == 0) {
             return forwardDiff(picture.get(x, y), picture.get(x + 1, y), picture.get(x + 2, y));
         } else if (x == picture.width() - 1) {
@@ -33,7 +58,7 @@ public class DualGradientEnergyFunction implements EnergyFunction {
      * @param y       the y-index into the picture.
      * @return the vertical derivative for the (x, y) pixel in the picture.
      */
-    private static double verticalDerivative(Picture picture, int x, int y) {
+    private static int verticalDerivative(Picture picture, int x, int y) {
         if (y == 0) {
             return forwardDiff(picture.get(x, y), picture.get(x, y + 1), picture.get(x, y + 2));
         } else if (y == picture.height() - 1) {
@@ -50,10 +75,11 @@ public class DualGradientEnergyFunction implements EnergyFunction {
      * @param rgb2 the second pixel's color.
      * @return the central difference between the two pixels' colors.
      */
-    private static double centralDiff(int rgb1, int rgb2) {
-        return Math.pow(red(rgb1) - red(rgb2), 2)
-                + Math.pow(green(rgb1) - green(rgb2), 2)
-                + Math.pow(blue(rgb1) - blue(rgb2), 2);
+    private static int centralDiff(int rgb1, int rgb2) {
+        int r = red(rgb1) - red(rgb2);
+        int g = green(rgb1) - green(rgb2);
+        int b = blue(rgb1) - blue(rgb2);
+        return r * r + g * g + b * b;
     }
 
     /**
@@ -64,10 +90,11 @@ public class DualGradientEnergyFunction implements EnergyFunction {
      * @param rgb3 the third adjacent pixel's color.
      * @return the forward/backward difference for the three adjacent pixels' colors.
      */
-    private static double forwardDiff(int rgb1, int rgb2, int rgb3) {
-        return Math.pow(-3 * red(rgb1) + 4 * red(rgb2) - red(rgb3), 2)
-                + Math.pow(-3 * green(rgb1) + 4 * green(rgb2) - green(rgb3), 2)
-                + Math.pow(-3 * blue(rgb1) + 4 * blue(rgb2) - blue(rgb3), 2);
+    private static int forwardDiff(int rgb1, int rgb2, int rgb3) {
+        int r = -3 * red(rgb1) + 4 * red(rgb2) - red(rgb3);
+        int g = -3 * green(rgb1) + 4 * green(rgb2) - green(rgb3);
+        int b = -3 * blue(rgb1) + 4 * blue(rgb2) - blue(rgb3);
+        return r * r + g * g + b * b;
     }
 
     /**
@@ -100,11 +127,421 @@ public class DualGradientEnergyFunction implements EnergyFunction {
         return rgb & 0xFF;
     }
 
+    /**
+     * Copies row y of the picture into the destination array.
+     *
+     * @param picture the input picture.
+     * @param y       the y-index into the picture.
+     * @param dest    the destination array with a length of at least the width of the picture.
+     */
+    private static void copyRow(Picture picture, int y, int[] dest) {
+        if (picture.pixels != null) {
+            System.arraycopy(picture.pixels, y * picture.stride, dest, 0, picture.width());
+        } else {
+            for (int x = 0; x < picture.width(); x += 1) {
+                dest[x] = picture.get(x, y);
+            }
+        }
+    }
+
+    /**
+     * Copies column x of the picture and two other columns into the destination arrays in a single pass down the
+     * picture, so that each row of the pixel buffer is visited once.
+     *
+     * @param picture the input picture.
+     * @param x       the x-index of the column.
+     * @param x1      the x-index of the first other column.
+     * @param x2      the x-index of the second other column.
+     * @param column  the destination for column x, with a length of at least the height of the picture.
+     * @param other1  the destination for column x1, with a length of at least the height of the picture.
+     * @param other2  the destination for column x2, with a length of at least the height of the picture.
+     */
+    private static void copyColumns(Picture picture, int x, int x1, int x2, int[] column, int[] other1,
+                                    int[] other2) {
+        if (picture.pixels != null) {
+            int[] pixels = picture.pixels;
+            for (int y = 0, row = 0; y < picture.height(); y += 1, row += picture.stride) {
+                column[y] = pixels[row + x];
+                other1[y] = pixels[row + x1];
+                other2[y] = pixels[row + x2];
+            }
+        } else {
+            for (int y = 0; y < picture.height(); y += 1) {
+                column[y] = picture.get(x, y);
+                other1[y] = picture.get(x1, y);
+                other2[y] = picture.get(x2, y);
+            }
+        }
+    }
+
+    /**
+     * Computes the squared gradients of a row from the colors of the row and two other rows. If {@code central} is
+     * true, the other rows are the rows directly above and below the row; otherwise, they are the next two rows moving
+     * away from the top or bottom edge of the picture.
+     *
+     * @param row     the colors of the row.
+     * @param other1  the colors of the row above, or the adjacent row for an edge row.
+     * @param other2  the colors of the row below, or the row after the adjacent row for an edge row.
+     * @param central true if the vertical derivative is a central difference.
+     * @param width   the width of the picture, at least 3.
+     * @param out     the destination for the squared gradients.
+     * @param offset  the index in the destination for the squared gradient of the first pixel in the row.
+     */
+    private static void gradients(int[] row, int[] other1, int[] other2, boolean central, int width,
+                                  int[] out, int offset) {
+        // Handle the left and right edges, which use forward differences for the horizontal derivative.
+        int last = width - 1;
+        out[offset] = forwardDiff(row[0], row[1], row[2]) + verticalDiff(row[0], other1[0], other2[0], central);
+        out[offset + last] = forwardDiff(row[last], row[last - 1], row[last - 2])
+                + verticalDiff(row[last], other1[last], other2[last], central);
+        // Split the interior loop on the vertical derivative so that neither loop has branches.
+        if (central) {
+            for (int x = 1; x < last; x += 1) {
+                int l = row[x - 1];
+                int r = row[x + 1];
+                int a = other1[x];
+                int b = other2[x];
+                int dr = ((l >> 16) & 0xFF) - ((r >> 16) & 0xFF);
+                int dg = ((l >> 8) & 0xFF) - ((r >> 8) & 0xFF);
+                int db = (l & 0xFF) - (r & 0xFF);
+                int vr = ((a >> 16) & 0xFF) - ((b >> 16) & 0xFF);
+                int vg = ((a >> 8) & 0xFF) - ((b >> 8) & 0xFF);
+                int vb = (a & 0xFF) - (b & 0xFF);
+                out[offset + x] = dr * dr + dg * dg + db * db + vr * vr + vg * vg + vb * vb;
+            }
+        } else {
+            for (int x = 1; x < last; x += 1) {
+                int l = row[x - 1];
+                int r = row[x + 1];
+                int c = row[x];
+                int a = other1[x];
+                int b = other2[x];
+                int dr = ((l >> 16) & 0xFF) - ((r >> 16) & 0xFF);
+                int dg = ((l >> 8) & 0xFF) - ((r >> 8) & 0xFF);
+                int db = (l & 0xFF) - (r & 0xFF);
+                int vr = -3 * ((c >> 16) & 0xFF) + 4 * ((a >> 16) & 0xFF) - ((b >> 16) & 0xFF);
+                int vg = -3 * ((c >> 8) & 0xFF) + 4 * ((a >> 8) & 0xFF) - ((b >> 8) & 0xFF);
+                int vb = -3 * (c & 0xFF) + 4 * (a & 0xFF) - (b & 0xFF);
+                out[offset + x] = dr * dr + dg * dg + db * db + vr * vr + vg * vg + vb * vb;
+            }
+        }
+    }
+
+    /**
+     * Computes the squared gradients of row y from the picture's {@link ChannelPlanes}, like
+     * {@link #gradients(int[], int[], int[], boolean, int, int[], int)} but without decoding packed pixels.
+     *
+     * @param picture the input picture with channel planes, at least 3 pixels wide.
+     * @param y       the y-index into the picture.
+     * @param y1      the row above, or the adjacent row for an edge row.
+     * @param y2      the row below, or the row after the adjacent row for an edge row.
+     * @param central true if the vertical derivative is a central difference.
+     * @param out     the destination for the squared gradients.
+     * @param offset  the index in the destination for the squared gradient of the first pixel in the row.
+     */
+    private static void gradients(Picture picture, int y, int y1, int y2, boolean central, int[] out, int offset) {
+        ChannelPlanes planes = picture.planes;
+        byte[] red = planes.red;
+        byte[] green = planes.green;
+        byte[] blue = planes.blue;
+        int last = picture.width() - 1;
+        // The left and right edges use forward differences, and there are only two of them per row.
+        out[offset] = gradient(picture, 0, y);
+        out[offset + last] = gradient(picture, last, y);
+        int row = y * planes.stride;
+        int row1 = y1 * planes.stride;
+        int row2 = y2 * planes.stride;
+        // Split the interior loop on the vertical derivative so that neither loop has branches.
+        if (central) {
+            for (int x = 1; x < last; x += 1) {
+                int dr = (red[row + x - 1] & 0xFF) - (red[row + x + 1] & 0xFF);
+                int dg = (green[row + x - 1] & 0xFF) - (green[row + x + 1] & 0xFF);
+                int db = (blue[row + x - 1] & 0xFF) - (blue[row + x + 1] & 0xFF);
+                int vr = (red[row1 + x] & 0xFF) - (red[row2 + x] & 0xFF);
+                int vg = (green[row1 + x] & 0xFF) - (green[row2 + x] & 0xFF);
+                int vb = (blue[row1 + x] & 0xFF) - (blue[row2 + x] & 0xFF);
+                out[offset + x] = dr * dr + dg * dg + db * db + vr * vr + vg * vg + vb * vb;
+            }
+        } else {
+            for (int x = 1; x < last; x += 1) {
+                int dr = (red[row + x - 1] & 0xFF) - (red[row + x + 1] & 0xFF);
+                int dg = (green[row + x - 1] & 0xFF) - (green[row + x + 1] & 0xFF);
+                int db = (blue[row + x - 1] & 0xFF) - (blue[row + x + 1] & 0xFF);
+                int vr = -3 * (red[row + x] & 0xFF) + 4 * (red[row1 + x] & 0xFF) - (red[row2 + x] & 0xFF);
+                int vg = -3 * (green[row + x] & 0xFF) + 4 * (green[row1 + x] & 0xFF) - (green[row2 + x] & 0xFF);
+                int vb = -3 * (blue[row + x] & 0xFF) + 4 * (blue[row1 + x] & 0xFF) - (blue[row2 + x] & 0xFF);
+                out[offset + x] = dr * dr + dg * dg + db * db + vr * vr + vg * vg + vb * vb;
+            }
+        }
+    }
+
+    /**
+     * Returns the vertical derivative for a pixel given its color and the colors of two other pixels in its column.
+     *
+     * @param rgb     the pixel's color.
+     * @param rgb1    the color above, or the adjacent color for a pixel on the top or bottom edge.
+     * @param rgb2    the color below, or the color after the adjacent color for a pixel on the top or bottom edge.
+     * @param central true if the vertical derivative is a central difference.
+     * @return the vertical derivative for the pixel.
+     */
+    private static int verticalDiff(int rgb, int rgb1, int rgb2, boolean central) {
+        return central ? centralDiff(rgb1, rgb2) : forwardDiff(rgb, rgb1, rgb2);
+    }
+
+    /**
+     * Returns the squared gradient of pixel (x, y), the sum of its squared horizontal and vertical derivatives. The
+     * components are read from the picture's {@link ChannelPlanes} if it has them.
+     *
+     * @param picture the input picture.
+     * @param x       the x-index into the picture.
+     * @param y       the y-index into the picture.
+     * @return the squared gradient of pixel (x, y).
+     */
+    private static int gradient(Picture picture, int x, int y) {
+        ChannelPlanes planes = picture.planes;
+        if (planes == null || picture.width() < 3 || picture.height() < 3) {
+            return horizontalDerivative(picture, x, y) + verticalDerivative(picture, x, y);
+        }
+        int i = y * planes.stride + x;
+        return planeDerivative(planes, i, 1, x == 0, x == picture.width() - 1)
+                + planeDerivative(planes, i, planes.stride, y == 0, y == picture.height() - 1);
+    }
+
+    /**
+     * Returns the derivative for a pixel along one axis of the {@link ChannelPlanes}, like
+     * {@link #horizontalDerivative(Picture, int, int)} and {@link #verticalDerivative(Picture, int, int)}.
+     *
+     * @param planes the channel planes of the picture.
+     * @param i      the index of the pixel in the planes.
+     * @param step   the distance in the planes between adjacent pixels along the axis.
+     * @param first  true if the pixel is the first along the axis.
+     * @param last   true if the pixel is the last along the axis.
+     * @return the derivative for the pixel along the axis.
+     */
+    private static int planeDerivative(ChannelPlanes planes, int i, int step, boolean first, boolean last) {
+        byte[] red = planes.red;
+        byte[] green = planes.green;
+        byte[] blue = planes.blue;
+        int r;
+        int g;
+        int b;
+        if (first || last) {
+            int i1 = first ? i + step : i - step;
+            int i2 = first ? i + 2 * step : i - 2 * step;
+            r = -3 * (red[i] & 0xFF) + 4 * (red[i1] & 0xFF) - (red[i2] & 0xFF);
+            g = -3 * (green[i] & 0xFF) + 4 * (green[i1] & 0xFF) - (green[i2] & 0xFF);
+            b = -3 * (blue[i] & 0xFF) + 4 * (blue[i1] & 0xFF) - (blue[i2] & 0xFF);
+        } else {
+            r = (red[i - step] & 0xFF) - (red[i + step] & 0xFF);
+            g = (green[i - step] & 0xFF) - (green[i + step] & 0xFF);
+            b = (blue[i - step] & 0xFF) - (blue[i + step] & 0xFF);
+        }
+        return r * r + g * g + b * b;
+    }
+
+    /**
+     * Returns the energy of a pixel with the given squared gradient in fixed point. The result is exactly
+     * {@code (int) (energy * (1 << FRACTION_BITS))}, since scaling by a power of two commutes with rounding.
+     *
+     * @param gradient the squared gradient.
+     * @return the energy in fixed point.
+     */
+    private static int fixed(int gradient) {
+        return (int) (Math.sqrt(gradient) * (1 << FRACTION_BITS));
+    }
+
+    /**
+     * Stores the squared gradients of every pixel in row y of the picture into {@code out}, starting at index
+     * {@code offset}.
+     *
+     * @param picture the input picture.
+     * @param y       the y-index into the picture.
+     * @param out     the destination for the squared gradients.
+     * @param offset  the index in the destination for the squared gradient of pixel (0, y).
+     */
+    private static void gradientRow(Picture picture, int y, int[] out, int offset) {
+        int width = picture.width();
+        int height = picture.height();
+        if (y < 0 || y >= height) {
+            throw new IndexOutOfBoundsException("Invalid indices for given picture");
+        } else if (width < 3 || height < 3) {
+            // Too small for the bulk path, which assumes both derivatives can be computed.
+            for (int x = 0; x < width; x += 1) {
+                out[offset + x] = gradient(picture, x, y);
+            }
+            return;
+        } else if (picture.planes != null) {
+            if (y == 0) {
+                gradients(picture, y, 1, 2, false, out, offset);
+            } else if (y == height - 1) {
+                gradients(picture, y, y - 1, y - 2, false, out, offset);
+            } else {
+                gradients(picture, y, y - 1, y + 1, true, out, offset);
+            }
+            return;
+        }
+        Workspace workspace = Workspace.get();
+        int[] row = workspace.ints(ROW, width);
+        int[] other1 = workspace.ints(OTHER1, width);
+        int[] other2 = workspace.ints(OTHER2, width);
+        copyRow(picture, y, row);
+        if (y == 0) {
+            copyRow(picture, 1, other1);
+            copyRow(picture, 2, other2);
+        } else if (y == height - 1) {
+            copyRow(picture, y - 1, other1);
+            copyRow(picture, y - 2, other2);
+        } else {
+            copyRow(picture, y - 1, other1);
+            copyRow(picture, y + 1, other2);
+        }
+        gradients(row, other1, other2, 0 < y && y < height - 1, width, out, offset);
+    }
+
+    /**
+     * Stores the squared gradients of every pixel in column x of the picture into {@code out}, starting at index
+     * {@code offset}. The column is handled like a row of the transposed picture, whose squared gradients are the same.
+     *
+     * @param picture the input picture.
+     * @param x       the x-index into the picture.
+     * @param out     the destination for the squared gradients.
+     * @param offset  the index in the destination for the squared gradient of pixel (x, 0).
+     */
+    private static void gradientColumn(Picture picture, int x, int[] out, int offset) {
+        int width = picture.width();
+        int height = picture.height();
+        if (x < 0 || x >= width) {
+            throw new IndexOutOfBoundsException("Invalid indices for given picture");
+        } else if (width < 3 || height < 3) {
+            for (int y = 0; y < height; y += 1) {
+                out[offset + y] = gradient(picture, x, y);
+            }
+            return;
+        }
+        Workspace workspace = Workspace.get();
+        int[] column = workspace.ints(ROW, height);
+        int[] other1 = workspace.ints(OTHER1, height);
+        int[] other2 = workspace.ints(OTHER2, height);
+        if (x == 0) {
+            copyColumns(picture, x, 1, 2, column, other1, other2);
+        } else if (x == width - 1) {
+            copyColumns(picture, x, x - 1, x - 2, column, other1, other2);
+        } else {
+            copyColumns(picture, x, x - 1, x + 1, column, other1, other2);
+        }
+        gradients(column, other1, other2, 0 < x && x < width - 1, height, out, offset);
+    }
+
     @Override
     public double apply(Picture picture, int x, int y) {
         if (x < 0 || y < 0 || x >= picture.width() || y >= picture.height()) {
             throw new IndexOutOfBoundsException("Invalid indices for given picture");
         }
-        return Math.sqrt(horizontalDerivative(picture, x, y) + verticalDerivative(picture, x, y));
+        return Math.sqrt(gradient(picture, x, y));
+    }
+
+    @Override
+    public int applyFixed(Picture picture, int x, int y) {
+        if (x < 0 || y < 0 || x >= picture.width() || y >= picture.height()) {
+            throw new IndexOutOfBoundsException("Invalid indices for given picture");
+        }
+        return fixed(gradient(picture, x, y));
+    }
+
+    /**
+     * Returns 2, since the pixels on the edges of the picture take forward differences with the next two pixels inward.
+     *
+     * @return the stencil radius.
+     */
+    @Override
+    public int stencilRadius() {
+        return 2;
+    }
+
+    @Override
+    public void applyRow(Picture picture, int y, double[] out, int offset) {
+        int width = picture.width();
+        int[] gradients = Workspace.get().ints(GRADIENTS, width);
+        gradientRow(picture, y, gradients, 0);
+        for (int x = 0; x < width; x += 1) {
+            out[offset + x] = Math.sqrt(gradients[x]);
+        }
+    }
+
+    @Override
+    public void applyRowFixed(Picture picture, int y, int[] out, int offset) {
+        int width = picture.width();
+        gradientRow(picture, y, out, offset);
+        for (int x = 0; x < width; x += 1) {
+            out[offset + x] = fixed(out[offset + x]);
+        }
+    }
+
+    @Override
+    public void applyColumn(Picture picture, int x, double[] out, int offset) {
+        int height = picture.height();
+        int[] gradients = Workspace.get().ints(GRADIENTS, height);
+        gradientColumn(picture, x, gradients, 0);
+        sqrt(gradients, height, out, offset);
+    }
+
+    @Override
+    public void applyColumnFixed(Picture picture, int x, int[] out, int offset) {
+        int height = picture.height();
+        gradientColumn(picture, x, out, offset);
+        for (int y = 0; y < height; y += 1) {
+            out[offset + y] = fixed(out[offset + y]);
+        }
+    }
+
+    @Override
+    public void applyAll(Picture picture, double[] out) {
+        int width = picture.width();
+        int height = picture.height();
+        if (width < 3 || height < 3 || picture.planes != null) {
+            // The planes need no sliding window, since each row is read straight from them.
+            for (int y = 0; y < height; y += 1) {
+                applyRow(picture, y, out, y * width);
+            }
+            return;
+        }
+        // Slide a window of three rows down the picture so that each row is only copied once.
+        Workspace workspace = Workspace.get();
+        int[] above = workspace.ints(ROW, width);
+        int[] row = workspace.ints(OTHER1, width);
+        int[] below = workspace.ints(OTHER2, width);
+        int[] gradients = workspace.ints(GRADIENTS, width);
+        copyRow(picture, 0, above);
+        copyRow(picture, 1, row);
+        copyRow(picture, 2, below);
+        gradients(above, row, below, false, width, gradients, 0);
+        sqrt(gradients, width, out, 0);
+        for (int y = 1; y < height - 1; y += 1) {
+            gradients(row, above, below, true, width, gradients, 0);
+            sqrt(gradients, width, out, y * width);
+            if (y < height - 2) {
+                int[] next = above;
+                above = row;
+                row = below;
+                below = next;
+                copyRow(picture, y + 2, below);
+            }
+        }
+        gradients(below, row, above, false, width, gradients, 0);
+        sqrt(gradients, width, out, (height - 1) * width);
+    }
+
+    /**
+     * Stores the square roots of the squared gradients into {@code out}, starting at index {@code offset}.
+     *
+     * @param gradients the squared gradients.
+     * @param width     the number of squared gradients.
+     * @param out       the destination for the energies.
+     * @param offset    the index in the destination for the first energy.
+     */
+    private static void sqrt(int[] gradients, int width, double[] out, int offset) {
+        for (int x = 0; x < width; x += 1) {
+            out[offset + x] = Math.sqrt(gradients[x]);
+        }
     }
 }
@@ -1,69 +1,352 @@
 package seamcarving;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.Arrays;
 
 /**
- * Dynamic programming implementation of the {@link SeamFinder} interface.
+ * Dynamic programming implementation of the {@link SeamFinder} interface. Vertical seams are found directly in
+ * row-major order rather than through a transposed view of the picture, so both orientations walk memory sequentially.
+ * <p>
+ * Rather than keep a full table of seam costs, only two rolling lines of costs are kept along with a {@code byte} per
+ * pixel recording which neighbor in the previous line the cheapest seam came from. The seam is then recovered from
+ * these backpointers, so peak memory is about one byte per pixel instead of eight. The buffers are borrowed from the
+ * calling thread's {@link Workspace} and only reallocated when a larger picture is given, so repeated calls allocate
+ * nothing but the seam, and an instance can be shared between threads.
  *
  * @see SeamFinder
  * @see SeamCarver
  */
 public class DynamicProgrammingSeamFinder implements SeamFinder {
+    /**
+     * The costs of the previous line of the DP table.
+     */
+    private static final Workspace.Slot PREVIOUS = new Workspace.Slot();
+    /**
+     * The costs of the current line of the DP table.
+     */
+    private static final Workspace.Slot CURRENT = new Workspace.Slot();
+    /**
+     * The energies of the current line of the DP table.
+     */
+    private static final Workspace.Slot ENERGIES = new Workspace.Slot();
+    /**
+     * The offset (-1, 0, or +1) to the cheapest neighbor in the previous line for each cell of the DP table. For a
+     * horizontal seam, the cell (x, y) is stored at index {@code x * height + y}; for a vertical seam, at index
+     * {@code y * width + x}.
+     */
+    private static final Workspace.Slot EDGE_TO = new Workspace.Slot();
+    /**
+     * The full table of seam costs used by {@link #findVerticalSeams(Picture, EnergyFunction, int)}, laid out like
+     * {@link #EDGE_TO}.
+     */
+    private static final Workspace.Slot COSTS = new Workspace.Slot();
+    /**
+     * Whether each cell of {@link #COSTS} belongs to a seam that has already been extracted.
+     */
+    private static final Workspace.Slot USED = new Workspace.Slot();
+    /**
+     * Whether each cell of the last line has already been tried as the end of a seam.
+     */
+    private static final Workspace.Slot TRIED = new Workspace.Slot();
+    /**
+     * Whether each cell of {@link #COSTS} is known to have no path to the first line that avoids the used cells.
+     */
+    private static final Workspace.Slot DEAD = new Workspace.Slot();
+    /**
+     * The neighbors already explored from the cell of the current path in each line, as a bitmask of offsets.
+     */
+    private static final Workspace.Slot EXPLORED = new Workspace.Slot();
 
     @Override
-    public List<Integer> findSeam(Picture picture, EnergyFunction f) {
-        double[][] DPTable = new double[picture.width()][picture.height()];
-        // fill out the first column
-        for (int y = 0; y < picture.height(); y++) {
-            DPTable[0][y] = f.apply(picture, 0, y);
-        } 
+    public int[] findSeamArray(Picture picture, EnergyFunction f) {
+        return find(picture, f, false);
+    }
+
+    @Override
+    public int[] findVerticalSeamArray(Picture picture, EnergyFunction f) {
+        return find(picture, f, true);
+    }
 
-        // fill out following columns
-        for (int x = 1; x < picture.width(); x++) {
-            for (int y = 0; y < picture.height(); y++) {
+    /**
+     * Returns a minimum-energy seam in the given orientation. The DP table is made of lines of cells: the columns of the
+     * picture for a horizontal seam, or the rows of the picture for a vertical seam.
+     *
+     * @param picture  the {@link Picture}.
+     * @param f        the {@link EnergyFunction}.
+     * @param vertical true to find a vertical seam in row-major order, false to find a horizontal seam.
+     * @return an array of the pixels to remove.
+     */
+    private int[] find(Picture picture, EnergyFunction f, boolean vertical) {
+        int lines = vertical ? picture.height() : picture.width();
+        int length = vertical ? picture.width() : picture.height();
+        Workspace workspace = Workspace.get();
+        double[] previous = workspace.doubles(PREVIOUS, length);
+        double[] current = workspace.doubles(CURRENT, length);
+        double[] energies = workspace.doubles(ENERGIES, length);
+        byte[] edgeTo = workspace.bytes(EDGE_TO, lines * length);
+        for (int i = 0; i < lines; i++) {
+            lineEnergies(picture, f, vertical, i, length, energies);
+            if (i == 0) {
+                // fill out the first line
+                System.arraycopy(energies, 0, previous, 0, length);
+                continue;
+            }
+            // fill out following lines
+            int line = i * length;
+            for (int j = 0; j < length; j++) {
                 double min = Double.POSITIVE_INFINITY;
+                int mink = j;
                 // compare left up mid bottom neighbors
-                for (int z = y - 1; z <= y + 1; z++) {
-                    if (z >= 0 && z < picture.height()) {
-                        // double energy = f.apply(picture, x - 1, z); -- why doesn't this work?
-                        double energy = DPTable[x - 1][z];
-                        if (energy < min) {
-                            min = energy;
+                for (int k = j - 1; k <= j + 1; k++) {
+                    if (k >= 0 && k < length && previous[k] < min) {
+                        min = previous[k];
+                        mink = k;
+                    }
+                }
+                edgeTo[line + j] = (byte) (mink - j);
+                current[j] = energies[j] + min;
+            }
+            double[] temp = previous;
+            previous = current;
+            current = temp;
+        }
+        return backtrack(previous, edgeTo, lines, length);
+    }
+
+    /**
+     * Stores the energies of line i of the DP table into the given array.
+     *
+     * @param picture  the {@link Picture}.
+     * @param f        the {@link EnergyFunction}.
+     * @param vertical true if the lines are the rows of the picture, false if they are the columns.
+     * @param i        the line of the DP table.
+     * @param length   the number of cells in each line.
+     * @param energies the destination for the energies.
+     */
+    private static void lineEnergies(Picture picture, EnergyFunction f, boolean vertical, int i, int length,
+                                     double[] energies) {
+        if (vertical) {
+            f.applyRow(picture, i, energies, 0);
+        } else {
+            f.applyColumn(picture, i, energies, 0);
+        }
+    }
+
+    /**
+     * Returns up to {@code k} pairwise non-crossing, low-energy horizontal seams from a single DP table. See
+     * {@link #findVerticalSeams(Picture, EnergyFunction, int)} for details.
+     *
+     * @param picture the {@link Picture}.
+     * @param f       the {@link EnergyFunction}.
+     * @param k       the maximum number of seams to find.
+     * @return the seams in decreasing order of their indices, so that removing them in order is always valid.
+     */
+    public int[][] findSeams(Picture picture, EnergyFunction f, int k) {
+        return findAll(picture, f, false, k, null);
+    }
+
+    /**
+     * Returns up to {@code k} pairwise non-crossing, low-energy vertical seams from a single DP table. The seams are
+     * extracted greedily by backtracking from the cheapest cells in the last line, each time stepping to the cheapest
+     * neighbor not already used by another seam, and giving up on an end cell if every neighbor has been used. If that
+     * yields fewer than {@code k} seams, the remaining end cells are tried again with a backtrack that retreats from
+     * blocked cells and tries the next cheapest neighbor one line down, remembering cells with no way through so that
+     * they are never explored again. Only the first seam is guaranteed to have minimum cost; later seams trade accuracy
+     * for not recomputing the DP table.
+     * <p>
+     * Unlike {@link #findVerticalSeam(Picture, EnergyFunction)}, this method keeps the full table of costs, so it needs
+     * about ten bytes per pixel.
+     *
+     * @param picture the {@link Picture}.
+     * @param f       the {@link EnergyFunction}.
+     * @param k       the maximum number of seams to find.
+     * @return the seams in decreasing order of their indices, so that removing them in order is always valid.
+     */
+    public int[][] findVerticalSeams(Picture picture, EnergyFunction f, int k) {
+        return findAll(picture, f, true, k, null);
+    }
+
+    /**
+     * Returns up to {@code k} pairwise non-crossing, low-energy seams in the given orientation. If a first seam is
+     * given, such as one found by another {@link SeamFinder}, it is always returned and the other seams are extracted
+     * around it.
+     *
+     * @param picture  the {@link Picture}.
+     * @param f        the {@link EnergyFunction}.
+     * @param vertical true to find vertical seams in row-major order, false to find horizontal seams.
+     * @param k        the maximum number of seams to find, at least 1.
+     * @param first    the seam to return in place of the cheapest seam in the DP table, or null.
+     * @return the seams in decreasing order of their indices.
+     */
+    int[][] findAll(Picture picture, EnergyFunction f, boolean vertical, int k, int[] first) {
+        int lines = vertical ? picture.height() : picture.width();
+        int length = vertical ? picture.width() : picture.height();
+        Workspace workspace = Workspace.get();
+        double[] energies = workspace.doubles(ENERGIES, length);
+        double[] costs = workspace.doubles(COSTS, lines * length);
+        boolean[] used = workspace.booleans(USED, lines * length);
+        Arrays.fill(used, 0, lines * length, false);
+        for (int i = 0; i < lines; i++) {
+            lineEnergies(picture, f, vertical, i, length, energies);
+            int line = i * length;
+            int above = line - length;
+            for (int j = 0; j < length; j++) {
+                double min = 0.0;
+                if (i > 0) {
+                    min = Double.POSITIVE_INFINITY;
+                    for (int n = j - 1; n <= j + 1; n++) {
+                        if (n >= 0 && n < length && costs[above + n] < min) {
+                            min = costs[above + n];
                         }
                     }
                 }
-                DPTable[x][y] = f.apply(picture, x, y) + min;
+                costs[line + j] = energies[j] + min;
             }
         }
 
-        // find the shortest path from DP Table
-        List<Integer> shortest_path = new ArrayList<>();    // list containing shortest path in y coordinates
-        double min = Double.POSITIVE_INFINITY;
-        int miny = 0;
-        for (int y = 0; y < picture.height(); y++) {
-            if (DPTable[picture.width() - 1][y] < min) {
-                min = DPTable[picture.width() - 1][y];
-                miny = y;
+        // Greedily backtrack from the cheapest end cells, giving up on an end cell as soon as its path is blocked. If
+        // that finds too few seams, try the remaining end cells again, this time retreating from blocked cells. A cell
+        // is dead once every neighbor above it is used or dead, and stays dead since cells are only ever added to seams.
+        int last = (lines - 1) * length;
+        boolean[] tried = workspace.booleans(TRIED, length);
+        boolean[] dead = workspace.booleans(DEAD, lines * length);
+        Arrays.fill(dead, 0, lines * length, false);
+        byte[] explored = workspace.bytes(EXPLORED, lines);
+        int[][] seams = new int[Math.min(k, length)][];
+        int found = 0;
+        if (first != null) {
+            for (int i = 0; i < lines; i++) {
+                used[i * length + first[i]] = true;
             }
+            seams[found] = first.clone();
+            found++;
         }
-        shortest_path.add(miny);
-        for (int x = picture.width() - 1; x > 0; x--) {
-            min = Double.POSITIVE_INFINITY;
-            int temp = miny;
-            for (int y = miny - 1; y <= miny + 1; y++) {
-                if (y >= 0 && y < picture.height()) {
-                    if (DPTable[x - 1][y] < min) {
-                        min = DPTable[x - 1][y];
-                        temp = y;
+        int[] path = new int[lines];
+        for (int pass = 0; pass < 2 && found < seams.length; pass++) {
+            boolean retreat = pass > 0;
+            Arrays.fill(tried, 0, length, false);
+            for (int attempt = 0; attempt < length && found < seams.length; attempt++) {
+                int minj = -1;
+                for (int j = 0; j < length; j++) {
+                    if (!tried[j] && !used[last + j] && !dead[last + j]
+                            && (minj < 0 || costs[last + j] < costs[last + minj])) {
+                        minj = j;
+                    }
+                }
+                if (minj < 0) {
+                    break;
+                }
+                tried[minj] = true;
+                path[lines - 1] = minj;
+                explored[lines - 1] = 0;
+                int i = lines - 1;
+                while (i > 0 && i < lines) {
+                    int above = (i - 1) * length;
+                    int next = -1;
+                    for (int n = path[i] - 1; n <= path[i] + 1; n++) {
+                        if (n >= 0 && n < length && !used[above + n] && !dead[above + n]
+                                && (explored[i] & (1 << (n - path[i] + 1))) == 0
+                                && (next < 0 || costs[above + n] < costs[above + next])) {
+                            next = n;
+                        }
+                    }
+                    if (next >= 0) {
+                        explored[i] |= 1 << (next - path[i] + 1);
+                        path[i - 1] = next;
+                        explored[i - 1] = 0;
+                        i--;
+                    } else if (retreat) {
+                        dead[i * length + path[i]] = true;
+                        i++;
+                    } else {
+                        break;
                     }
                 }
+                if (i == 0) {
+                    for (i = 0; i < lines; i++) {
+                        used[i * length + path[i]] = true;
+                    }
+                    seams[found] = path.clone();
+                    found++;
+                }
             }
-            miny = temp;
-            shortest_path.add(miny);
         }
-        Collections.reverse(shortest_path);
+
+        // Sort the removed indices in each line so that no two seams cross, then return the rightmost seam first.
+        int[] column = new int[found];
+        for (int i = 0; i < lines; i++) {
+            for (int s = 0; s < found; s++) {
+                column[s] = seams[s][i];
+            }
+            Arrays.sort(column);
+            for (int s = 0; s < found; s++) {
+                seams[s][i] = column[found - 1 - s];
+            }
+        }
+        return Arrays.copyOf(seams, found);
+    }
+
+    /**
+     * Returns the minimum-cost seam by following the backpointers from the cheapest cell in the last line. Ties are
+     * broken towards the smaller index so that every implementation sharing this method returns the same seam.
+     *
+     * @param last   the costs of the last line of the DP table.
+     * @param edgeTo the offset to the cheapest neighbor in the previous line for each cell of the DP table.
+     * @param lines  the number of lines in the DP table.
+     * @param length the number of cells in each line.
+     * @return an array of the pixel index to remove from each line.
+     */
+    static int[] backtrack(double[] last, byte[] edgeTo, int lines, int length) {
+        double min = Double.POSITIVE_INFINITY;
+        int minj = 0;
+        for (int j = 0; j < length; j++) {
+            if (last[j] < min) {
+                min = last[j];
+                minj = j;
+            }
+        }
+        return backtrack(minj, edgeTo, lines, length);
+    }
+
+    /**
+     * Returns the minimum-cost seam by following the backpointers from the cheapest cell in the last line, for DP tables
+     * with integer costs such as those of {@link IntDynamicProgrammingSeamFinder}. Ties are broken as in
+     * {@link #backtrack(double[], byte[], int, int)}.
+     *
+     * @param last   the costs of the last line of the DP table.
+     * @param edgeTo the offset to the cheapest neighbor in the previous line for each cell of the DP table.
+     * @param lines  the number of lines in the DP table.
+     * @param length the number of cells in each line.
+     * @return an array of the pixel index to remove from each line.
+     */
+    static int[] backtrack(long[] last, byte[] edgeTo, int lines, int length) {
+        long min = Long.MAX_VALUE;
+        int minj = 0;
+        for (int j = 0; j < length; j++) {
+            if (last[j] < min) {
+                min = last[j];
+                minj = j;
+            }
+        }
+        return backtrack(minj, edgeTo, lines, length);
+    }
+
+    /**
+     * Returns the seam ending at the given cell of the last line by following the backpointers.
+     *
+     * @param minj   the cell of the last line where the seam ends.
+     * @param edgeTo the offset to the cheapest neighbor in the previous line for each cell of the DP table.
+     * @param lines  the number of lines in the DP table.
+     * @param length the number of cells in each line.
+     * @return an array of the pixel index to remove from each line.
+     */
+    private static int[] backtrack(int minj, byte[] edgeTo, int lines, int length) {
+        // find the shortest path from the backpointers
+        int[] shortest_path = new int[lines];    // array containing shortest path indices
+        shortest_path[lines - 1] = minj;
+        for (int i = lines - 1; i > 0; i--) {
+            minj += edgeTo[i * length + minj];
+            shortest_path[i - 1] = minj;
+        }
         return shortest_path;
     }
 }
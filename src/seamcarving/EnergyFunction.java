@@ -2,6 +2,12 @@ package seamcarving;
 
 /**
  * Determines the energy of a given (x, y) pixel index in a {@link Picture}.
+ * <p>
+ * Besides {@link #apply(Picture, int, int)}, energies can be computed in bulk for a whole row with
+ * {@link #applyRow(Picture, int, double[], int)}, for a whole column with {@link #applyColumn(Picture, int, double[], int)}
+ * or for the whole picture with {@link #applyAll(Picture, double[])}.
+ * The default implementations call {@link #apply(Picture, int, int)} for each pixel, but implementations can override
+ * them with tighter loops that share neighbor loads between adjacent pixels.
  *
  * @see DualGradientEnergyFunction
  * @see Picture
@@ -16,4 +22,58 @@ public interface EnergyFunction {
      * @return the energy of pixel (x, y) in the given picture.
      */
     double apply(Picture picture, int x, int y);
+
+    /**
+     * Returns the stencil radius of the energy function: the largest number of rows or columns between a pixel and any
+     * pixel its energy depends on. {@link EnergyMap} uses the radius to decide which cached energies a removed or
+     * inserted seam invalidates, and does not cache the energies of a function whose radius is unknown. The default
+     * returns -1, meaning that the radius is unknown.
+     *
+     * @return the stencil radius, or -1 if it is unknown.
+     */
+    default int stencilRadius() {
+        return -1;
+    }
+
+    /**
+     * Stores the energies of every pixel in row y of the picture into {@code out}, starting at index {@code offset}.
+     *
+     * @param picture the input picture.
+     * @param y       the y-index into the picture.
+     * @param out     the destination for the energies.
+     * @param offset  the index in the destination for the energy of pixel (0, y).
+     */
+    default void applyRow(Picture picture, int y, double[] out, int offset) {
+        for (int x = 0; x < picture.width(); x += 1) {
+            out[offset + x] = apply(picture, x, y);
+        }
+    }
+
+    /**
+     * Stores the energies of every pixel in column x of the picture into {@code out}, starting at index
+     * {@code offset}. Seam finders use this for the lines of the DP table when finding horizontal seams.
+     *
+     * @param picture the input picture.
+     * @param x       the x-index into the picture.
+     * @param out     the destination for the energies.
+     * @param offset  the index in the destination for the energy of pixel (x, 0).
+     */
+    default void applyColumn(Picture picture, int x, double[] out, int offset) {
+        for (int y = 0; y < picture.height(); y += 1) {
+            out[offset + y] = apply(picture, x, y);
+        }
+    }
+
+    /**
+     * Stores the energies of every pixel in the picture into {@code out} in row-major order, so that the energy of
+     * pixel (x, y) is stored at index {@code y * width + x}.
+     *
+     * @param picture the input picture.
+     * @param out     the destination for the energies.
+     */
+    default void applyAll(Picture picture, double[] out) {
+        for (int y = 0; y < picture.height(); y += 1) {
+            applyRow(picture, y, out, y * picture.width());
+        }
+    }
 }
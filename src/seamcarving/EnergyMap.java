@@ -0,0 +1,301 @@
+package seamcarving;
+
+import java.util.Arrays;
+
+/**
+ * Cached {@link EnergyFunction} values for every pixel in a {@link Picture} that is carved in place. Rather than
+ * re-evaluate the energy of every pixel for each seam, the map shifts its cached values along with the pixels when a
+ * seam is removed and only invalidates the pixels bordering the removed seam. Invalidated energies are marked as
+ * {@link Double#NaN} and recomputed the next time they are requested.
+ * <p>
+ * The pixels to invalidate are the ones within the {@link EnergyFunction#stencilRadius()} of the seam. Energy functions
+ * whose radius is unknown are not cached, and neither are pictures that are not backed by a heap pixel buffer, such as
+ * a {@link MappedPicture}, since the map would need as much memory as the picture itself.
+ *
+ * @see EnergyFunction
+ * @see Picture
+ * @see SeamCarver
+ */
+class EnergyMap implements EnergyFunction {
+    /**
+     * The {@link Picture} whose energies are cached.
+     */
+    private final Picture picture;
+    /**
+     * The {@link EnergyFunction} used to compute the cached energies.
+     */
+    private final EnergyFunction f;
+    /**
+     * The cached energies, laid out with the same row-major stride as the {@link Picture} pixel buffer, or null if the
+     * picture is not cached.
+     */
+    private final double[] energies;
+    /**
+     * The distance in {@link #energies} between the start of one row and the start of the next row.
+     */
+    private final int stride;
+    /**
+     * The {@link EnergyFunction#stencilRadius()} of the underlying energy function.
+     */
+    private final int radius;
+
+    /**
+     * Constructs an energy map for the picture. Energies are computed when they are first requested.
+     *
+     * @param picture the input picture.
+     * @param f       the input energy function.
+     */
+    EnergyMap(Picture picture, EnergyFunction f) {
+        this.picture = picture;
+        this.f = f;
+        this.stride = picture.stride;
+        this.radius = f.stencilRadius();
+        if (picture.pixels == null || radius < 0) {
+            this.energies = null;
+        } else {
+            this.energies = new double[stride * picture.height()];
+            Arrays.fill(energies, Double.NaN);
+        }
+    }
+
+    /**
+     * Returns the cached energy of pixel (x, y) if the given picture is the mapped picture, or otherwise computes the
+     * energy with the underlying {@link EnergyFunction}.
+     *
+     * @param picture the input picture.
+     * @param x       the x-index into the picture.
+     * @param y       the y-index into the picture.
+     * @return the energy of pixel (x, y) in the given picture.
+     */
+    @Override
+    public double apply(Picture picture, int x, int y) {
+        if (picture != this.picture || energies == null) {
+            return f.apply(picture, x, y);
+        } else if (x < 0 || y < 0 || x >= picture.width() || y >= picture.height()) {
+            throw new IndexOutOfBoundsException("Invalid indices for given picture");
+        }
+        int i = y * stride + x;
+        if (Double.isNaN(energies[i])) {
+            energies[i] = f.apply(picture, x, y);
+        }
+        return energies[i];
+    }
+
+    /**
+     * Stores the cached energies of row y into {@code out} if the given picture is the mapped picture, or otherwise
+     * computes them with the underlying {@link EnergyFunction}. Rows with many invalidated energies are recomputed in
+     * bulk with {@link EnergyFunction#applyRow(Picture, int, double[], int)}.
+     *
+     * @param picture the input picture.
+     * @param y       the y-index into the picture.
+     * @param out     the destination for the energies.
+     * @param offset  the index in the destination for the energy of pixel (0, y).
+     */
+    @Override
+    public void applyRow(Picture picture, int y, double[] out, int offset) {
+        if (picture != this.picture || energies == null) {
+            f.applyRow(picture, y, out, offset);
+            return;
+        } else if (y < 0 || y >= picture.height()) {
+            throw new IndexOutOfBoundsException("Invalid indices for given picture");
+        }
+        int width = picture.width();
+        int row = y * stride;
+        int invalid = 0;
+        for (int x = 0; x < width; x += 1) {
+            if (Double.isNaN(energies[row + x])) {
+                invalid += 1;
+            }
+        }
+        if (invalid > width / 4) {
+            f.applyRow(picture, y, energies, row);
+        } else if (invalid > 0) {
+            for (int x = 0; x < width; x += 1) {
+                if (Double.isNaN(energies[row + x])) {
+                    energies[row + x] = f.apply(picture, x, y);
+                }
+            }
+        }
+        System.arraycopy(energies, row, out, offset, width);
+    }
+
+    /**
+     * Stores the cached energies of column x into {@code out} if the given picture is the mapped picture, or otherwise
+     * computes them with the underlying {@link EnergyFunction}. Columns with many invalidated energies are recomputed
+     * in bulk with {@link EnergyFunction#applyColumn(Picture, int, double[], int)}.
+     *
+     * @param picture the input picture.
+     * @param x       the x-index into the picture.
+     * @param out     the destination for the energies.
+     * @param offset  the index in the destination for the energy of pixel (x, 0).
+     */
+    @Override
+    public void applyColumn(Picture picture, int x, double[] out, int offset) {
+        if (picture != this.picture || energies == null) {
+            f.applyColumn(picture, x, out, offset);
+            return;
+        } else if (x < 0 || x >= picture.width()) {
+            throw new IndexOutOfBoundsException("Invalid indices for given picture");
+        }
+        int height = picture.height();
+        int invalid = 0;
+        for (int y = 0, i = x; y < height; y += 1, i += stride) {
+            if (Double.isNaN(energies[i])) {
+                invalid += 1;
+            }
+        }
+        if (invalid > height / 4) {
+            f.applyColumn(picture, x, out, offset);
+            for (int y = 0, i = x; y < height; y += 1, i += stride) {
+                energies[i] = out[offset + y];
+            }
+            return;
+        }
+        for (int y = 0, i = x; y < height; y += 1, i += stride) {
+            if (Double.isNaN(energies[i])) {
+                energies[i] = f.apply(picture, x, y);
+            }
+            out[offset + y] = energies[i];
+        }
+    }
+
+    @Override
+    public int stencilRadius() {
+        return radius;
+    }
+
+    @Override
+    public void applyAll(Picture picture, double[] out) {
+        if (picture != this.picture || energies == null) {
+            f.applyAll(picture, out);
+            return;
+        }
+        for (int y = 0; y < picture.height(); y += 1) {
+            applyRow(picture, y, out, y * picture.width());
+        }
+    }
+
+    /**
+     * Updates the map after the vertical seam has been removed from the picture by invalidating the pixels near it.
+     * Must be called after {@link Picture#removeVertical(int[])}.
+     *
+     * @param seam the horizontal pixel index that was removed from each row.
+     */
+    void removeVertical(int[] seam) {
+        if (energies == null) {
+            return;
+        }
+        int width = picture.width();
+        int height = picture.height();
+        for (int y = 0; y < height; y += 1) {
+            int row = y * stride;
+            System.arraycopy(energies, row + seam[y] + 1, energies, row + seam[y], width - seam[y]);
+        }
+        for (int y = 0; y < height; y += 1) {
+            int lo = seam[y];
+            int hi = seam[y];
+            for (int i = Math.max(0, y - radius); i <= Math.min(height - 1, y + radius); i += 1) {
+                lo = Math.min(lo, seam[i]);
+                hi = Math.max(hi, seam[i]);
+            }
+            for (int x = Math.max(0, lo - radius); x <= Math.min(width - 1, hi + radius - 1); x += 1) {
+                energies[y * stride + x] = Double.NaN;
+            }
+        }
+    }
+
+    /**
+     * Updates the map after the horizontal seam has been removed from the picture by invalidating the pixels near it.
+     * Must be called after {@link Picture#removeHorizontal(int[])}.
+     *
+     * @param seam the vertical pixel index that was removed from each column.
+     */
+    void removeHorizontal(int[] seam) {
+        if (energies == null) {
+            return;
+        }
+        int width = picture.width();
+        int height = picture.height();
+        for (int y = 0; y < height; y += 1) {
+            int row = y * stride;
+            for (int x = 0; x < width; x += 1) {
+                if (seam[x] <= y) {
+                    energies[row + x] = energies[row + stride + x];
+                }
+            }
+        }
+        for (int x = 0; x < width; x += 1) {
+            int lo = seam[x];
+            int hi = seam[x];
+            for (int i = Math.max(0, x - radius); i <= Math.min(width - 1, x + radius); i += 1) {
+                lo = Math.min(lo, seam[i]);
+                hi = Math.max(hi, seam[i]);
+            }
+            for (int y = Math.max(0, lo - radius); y <= Math.min(height - 1, hi + radius - 1); y += 1) {
+                energies[y * stride + x] = Double.NaN;
+            }
+        }
+    }
+
+    /**
+     * Updates the map after the vertical seam has been inserted into the picture by invalidating the pixels near it.
+     * Must be called after {@link Picture#insertVertical(int[], int[], int)}.
+     *
+     * @param seam the horizontal pixel index that was inserted into each row.
+     */
+    void insertVertical(int[] seam) {
+        if (energies == null) {
+            return;
+        }
+        int width = picture.width();
+        int height = picture.height();
+        for (int y = 0; y < height; y += 1) {
+            int row = y * stride;
+            System.arraycopy(energies, row + seam[y], energies, row + seam[y] + 1, width - seam[y] - 1);
+        }
+        for (int y = 0; y < height; y += 1) {
+            int lo = seam[y];
+            int hi = seam[y];
+            for (int i = Math.max(0, y - radius); i <= Math.min(height - 1, y + radius); i += 1) {
+                lo = Math.min(lo, seam[i]);
+                hi = Math.max(hi, seam[i]);
+            }
+            for (int x = Math.max(0, lo - radius); x <= Math.min(width - 1, hi + radius); x += 1) {
+                energies[y * stride + x] = Double.NaN;
+            }
+        }
+    }
+
+    /**
+     * Updates the map after the horizontal seam has been inserted into the picture by invalidating the pixels near it.
+     * Must be called after {@link Picture#insertHorizontal(int[], int[], int)}.
+     *
+     * @param seam the vertical pixel index that was inserted into each column.
+     */
+    void insertHorizontal(int[] seam) {
+        if (energies == null) {
+            return;
+        }
+        int width = picture.width();
+        int height = picture.height();
+        for (int y = height - 1; y > 0; y -= 1) {
+            int row = y * stride;
+            for (int x = 0; x < width; x += 1) {
+                if (seam[x] < y) {
+                    energies[row + x] = energies[row - stride + x];
+                }
+            }
+        }
+        for (int x = 0; x < width; x += 1) {
+            int lo = seam[x];
+            int hi = seam[x];
+            for (int i = Math.max(0, x - radius); i <= Math.min(width - 1, x + radius); i += 1) {
+                lo = Math.min(lo, seam[i]);
+                hi = Math.max(hi, seam[i]);
+            }
+            for (int y = Math.max(0, lo - radius); y <= Math.min(height - 1, hi + radius); y += 1) {
+                energies[y * stride + x] = Double.NaN;
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package seamcarving;
+
+/**
+ * An {@link EnergyFunction} that can also return energies as {@code int} fixed-point numbers with
+ * {@link #FRACTION_BITS} fractional bits, for seam finders such as {@link IntDynamicProgrammingSeamFinder} that
+ * accumulate seam costs with exact integer arithmetic.
+ * <p>
+ * The fixed-point energy of a pixel must be {@code (int) (apply(picture, x, y) * (1 << FRACTION_BITS))}, so that a
+ * finder can also convert the energies of any other {@link EnergyFunction} and get the same values.
+ *
+ * @see EnergyFunction
+ * @see DualGradientEnergyFunction
+ * @see IntDynamicProgrammingSeamFinder
+ */
+public interface FixedPointEnergyFunction extends EnergyFunction {
+    /**
+     * The number of fractional bits in fixed-point energies.
+     */
+    int FRACTION_BITS = 8;
+
+    /**
+     * Returns the energy of pixel (x, y) in the given picture in fixed point.
+     *
+     * @param picture the input picture.
+     * @param x       the x-index into the picture.
+     * @param y       the y-index into the picture.
+     * @return the energy of pixel (x, y) in the given picture in fixed point.
+     */
+    int applyFixed(Picture picture, int x, int y);
+
+    /**
+     * Stores the fixed-point energies of every pixel in row y of the picture into {@code out}, starting at index
+     * {@code offset}.
+     *
+     * @param picture the input picture.
+     * @param y       the y-index into the picture.
+     * @param out     the destination for the energies.
+     * @param offset  the index in the destination for the energy of pixel (0, y).
+     */
+    default void applyRowFixed(Picture picture, int y, int[] out, int offset) {
+        for (int x = 0; x < picture.width(); x += 1) {
+            out[offset + x] = applyFixed(picture, x, y);
+        }
+    }
+
+    /**
+     * Stores the fixed-point energies of every pixel in column x of the picture into {@code out}, starting at index
+     * {@code offset}.
+     *
+     * @param picture the input picture.
+     * @param x       the x-index into the picture.
+     * @param out     the destination for the energies.
+     * @param offset  the index in the destination for the energy of pixel (x, 0).
+     */
+    default void applyColumnFixed(Picture picture, int x, int[] out, int offset) {
+        for (int y = 0; y < picture.height(); y += 1) {
+            out[offset + y] = applyFixed(picture, x, y);
+        }
+    }
+}
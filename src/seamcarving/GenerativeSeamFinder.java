@@ -1,93 +1,119 @@
 package seamcarving;
 
-import graphs.Edge;
-import graphs.Graph;
+import graphs.IntGraph;
+import graphs.IntShortestPathSolver;
 import graphs.ShortestPathSolver;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Objects;
+import java.util.Arrays;
 
 /**
- * Generative adjacency list graph single-source {@link ShortestPathSolver} implementation of the {@link SeamFinder}
- * interface.
+ * Generative adjacency list graph single-source {@link ShortestPathSolver} or {@link IntShortestPathSolver}
+ * implementation of the {@link SeamFinder} interface.
  *
- * @see Graph
+ * @see IntGraph
+ * @see IntShortestPathSolver
  * @see ShortestPathSolver
  * @see SeamFinder
  * @see SeamCarver
  */
 public class GenerativeSeamFinder implements SeamFinder {
     /**
-     * The constructor for the {@link ShortestPathSolver} implementation.
+     * The constructor for the {@link IntShortestPathSolver} implementation.
      */
-    private final ShortestPathSolver.Constructor<Node> sps;
+    private final IntShortestPathSolver.Constructor sps;
 
     /**
-     * Constructs an instance with the given {@link ShortestPathSolver} implementation.
+     * Constructs an instance with the given {@link ShortestPathSolver} implementation, which runs on a view of the
+     * pixel graph whose edges are created as {@link graphs.Edge} objects when requested. Use
+     * {@link #withIntSolver(IntShortestPathSolver.Constructor)} to run on the pixel graph directly.
      *
      * @param sps the {@link ShortestPathSolver} implementation.
      */
     public GenerativeSeamFinder(ShortestPathSolver.Constructor<Node> sps) {
+        this(Node.adapt(sps));
+    }
+
+    /**
+     * Constructs an instance with the given {@link IntShortestPathSolver} implementation.
+     *
+     * @param sps the {@link IntShortestPathSolver} implementation.
+     */
+    private GenerativeSeamFinder(IntShortestPathSolver.Constructor sps) {
         this.sps = sps;
     }
 
+    /**
+     * Returns an instance with the given {@link IntShortestPathSolver} implementation, which reads the edges of the
+     * pixel graph by vertex id without allocating per vertex.
+     *
+     * @param sps the {@link IntShortestPathSolver} implementation.
+     * @return an instance with the given {@link IntShortestPathSolver} implementation.
+     */
+    public static GenerativeSeamFinder withIntSolver(IntShortestPathSolver.Constructor sps) {
+        return new GenerativeSeamFinder(sps);
+    }
+
     @Override
-    public List<Integer> findSeam(Picture picture, EnergyFunction f) {
+    public int[] findSeamArray(Picture picture, EnergyFunction f) {
         PixelGraph graph = new PixelGraph(picture, f);
-        List<Node> seam = sps.run(graph, graph.source).solution(graph.sink);
-        seam = seam.subList(1, seam.size() - 1); // Skip the source and sink nodes
-        List<Integer> result = new ArrayList<>(seam.size());
-        for (Node pixel : seam) {
-            result.add(((PixelGraph.Pixel) pixel).y);
+        int[] seam = sps.run(graph, graph.source, SolverScratch.INSTANCE).solution(graph.sink);
+        int[] result = new int[seam.length - 2]; // Skip the source and sink vertices
+        for (int x = 0; x < result.length; x += 1) {
+            result[x] = seam[x + 1] % picture.height();
         }
         return result;
     }
 
     /**
-     * Generative adjacency list graph of {@link Pixel} vertices and {@link EnergyFunction}-weighted edges. Rather than
-     * materialize all vertices and edges upfront in the constructor, generates vertices and edges as needed when
-     * {@link #neighbors(Node)} is called by a client.
+     * Generative adjacency list graph of pixel vertices and {@link EnergyFunction}-weighted edges. The pixel (x, y) is
+     * the vertex {@code x * height + y}, followed by the source and sink vertices. Rather than materialize any edges,
+     * computes each edge from the vertex id when it is requested by a client. Energies are also computed on demand,
+     * but memoized so that each pixel's energy is computed at most once per graph even though solvers such as
+     * {@link graphs.IntToposortDAGSolver} visit each edge more than once. The memo is borrowed from the current
+     * thread's {@link Workspace}.
      *
-     * @see Pixel
      * @see EnergyFunction
      */
-    private static class PixelGraph implements Graph<Node> {
+    private static class PixelGraph implements IntGraph {
+        private static final Workspace.Slot ENERGIES = new Workspace.Slot();
+        private static final Workspace.Slot COMPUTED = new Workspace.Slot();
         /**
-         * The {@link Picture} for {@link #neighbors(Node)}.
+         * The width of the {@link Picture}.
+         */
+        private final int width;
+        /**
+         * The height of the {@link Picture}.
+         */
+        private final int height;
+        /**
+         * The {@link Picture} for computing energies.
          */
         private final Picture picture;
         /**
-         * The {@link EnergyFunction} for {@link #neighbors(Node)}.
+         * The {@link EnergyFunction} for computing energies.
          */
         private final EnergyFunction f;
         /**
-         * Source {@link Node} for the adjacency list graph.
+         * The memoized energies of the pixels in the {@link Picture} in row-major order, valid where the corresponding
+         * bit of {@link #computed} is set.
          */
-        private final Node source = new Node() {
-            @Override
-            public List<Edge<Node>> neighbors(Picture picture, EnergyFunction f) {
-                List<Edge<Node>> neighbors = new ArrayList<>(picture.height());
-                for (int y = 0; y < picture.height(); y++) {
-                    Pixel to = new Pixel(0, y);
-                    neighbors.add(new Edge<>(this, to, f.apply(picture, 0, y)));
-                }
-                return neighbors;
-            }
-        };
+        private final double[] energies;
         /**
-         * Sink {@link Node} for the adjacency list graph.
+         * Bitmap with one bit per pixel in row-major order, set once the pixel's energy has been computed.
          */
-        private final Node sink = new Node() {
-            @Override
-            public List<Edge<Node>> neighbors(Picture picture, EnergyFunction f) {
-                return List.of();   // sink has no neighbors
-            }
-        };
+        private final long[] computed;
+        /**
+         * Source vertex for the adjacency list graph.
+         */
+        private final int source;
+        /**
+         * Sink vertex for the adjacency list graph.
+         */
+        private final int sink;
 
         /**
-         * Constructs a generative adjacency list graph. All work is deferred to implementations of
-         * {@link Node#neighbors(Picture, EnergyFunction)}.
+         * Constructs a generative adjacency list graph. All work, including computing energies, is deferred to
+         * {@link #neighbor(int, int)} and {@link #weight(int, int)}.
          *
          * @param picture the input picture.
          * @param f       the input energy function.
@@ -95,90 +121,70 @@ public class GenerativeSeamFinder implements SeamFinder {
         private PixelGraph(Picture picture, EnergyFunction f) {
             this.picture = picture;
             this.f = f;
+            this.width = picture.width();
+            this.height = picture.height();
+            Workspace workspace = Workspace.get();
+            this.energies = workspace.doubles(ENERGIES, width * height);
+            this.computed = workspace.longs(COMPUTED, (width * height + 63) / 64);
+            Arrays.fill(computed, 0, (width * height + 63) / 64, 0);
+            this.source = width * height;
+            this.sink = source + 1;
         }
 
         @Override
-        public List<Edge<Node>> neighbors(Node node) {
-            return node.neighbors(picture, f);
+        public int vertices() {
+            return sink + 1;
         }
 
-        /**
-         * A pixel in the {@link PixelGraph} representation of the {@link Picture} with {@link EnergyFunction}-weighted
-         * edges to neighbors.
-         *
-         * @see PixelGraph
-         * @see Picture
-         * @see EnergyFunction
-         */
-        public class Pixel implements Node {
-            private final int x;
-            private final int y;
-
-            /**
-             * Constructs a pixel representing the (<i>x</i>, <i>y</i>) indices in the picture.
-             *
-             * @param x horizontal index into the picture.
-             * @param y vertical index into the picture.
-             */
-            public Pixel(int x, int y) {
-                this.x = x;
-                this.y = y;
-            }
-
-            @Override
-            public List<Edge<Node>> neighbors(Picture picture, EnergyFunction f) {
-                List<Edge<Node>> result = new ArrayList<>(picture.height());
-                // pixel on right-most edge
-                if (this.x == picture.width() - 1) {
-                    result.add(new Edge<Node>(this, sink, 0));
-                } else {
-                    // creating a pixel and edge for the right-up, right-middle, right-down neighbors..
-                    for (int z = this.y - 1; z <= this.y + 1; z++) {
-                        if (0 <= z && z < picture.height()) {
-                            Pixel to = new Pixel(x + 1, z);
-                            result.add(new Edge<>(this, to, f.apply(picture, x + 1, z)));
-                        }
-                    }
-                }
-                return result;
+        @Override
+        public int degree(int vertex) {
+            if (vertex == source) {
+                return height;
+            } else if (vertex == sink) {
+                return 0;   // sink has no neighbors
+            } else if (vertex / height == width - 1) {
+                return 1;   // pixel on right-most edge
             }
+            int y = vertex % height;
+            // right-up, right-middle, right-down neighbors that are in the bounds of the picture
+            return 3 - (y == 0 ? 1 : 0) - (y == height - 1 ? 1 : 0);
+        }
 
-            @Override
-            public String toString() {
-                return "(" + x + ", " + y + ")";
+        @Override
+        public int neighbor(int vertex, int i) {
+            if (vertex == source) {
+                return i;
+            } else if (vertex / height == width - 1) {
+                return sink;
             }
+            // the right-up neighbor only exists below the top row
+            return vertex + height - (vertex % height == 0 ? 0 : 1) + i;
+        }
 
-            @Override
-            public boolean equals(Object o) {
-                if (this == o) {
-                    return true;
-                } else if (!(o instanceof Pixel)) {
-                    return false;
-                }
-                Pixel other = (Pixel) o;
-                return this.x == other.x && this.y == other.y;
+        @Override
+        public double weight(int vertex, int i) {
+            if (vertex != source && vertex / height == width - 1) {
+                return 0;
             }
+            int to = neighbor(vertex, i);
+            return energy(to / height, to % height);
+        }
 
-            @Override
-            public int hashCode() {
-                return Objects.hash(x, y);
+        /**
+         * Returns the energy of pixel (x, y), computing it only the first time it is requested.
+         *
+         * @param x the x-index into the picture.
+         * @param y the y-index into the picture.
+         * @return the energy of pixel (x, y).
+         */
+        private double energy(int x, int y) {
+            int i = y * width + x;
+            long bit = 1L << i;
+            if ((computed[i >>> 6] & bit) == 0) {
+                energies[i] = f.apply(picture, x, y);
+                computed[i >>> 6] |= bit;
             }
+            return energies[i];
         }
     }
-    /**
-     * This is our experimental analysis for our project
-     * Here we can see a graph of the overal comparison for all the implementations
-     * I've labeled series 1-5 on the side and which implementation they correspond to
-     * and showed the rankings from fastest to slowest
-     * where Dynamic Programming being the fastest, followed by Dijkstra, and lastly Toppsort
-     * ---
-     * Here I have a graph representation for the Dijkstra vs Toposort solver using the Adjacency List
-     * Implementation
-     * This is also a graph representation for Dijkstra vs Toposort but using the Generative Seam Finder Implementation
-     * The next thing I would like to point out is the comparison between the Generative Seam Finder vs
-     * Adjacency List implementation 
-     * As we can see for Dijkstra Adjacency List is faster than Generative Seam Finder
-     * and for Toposort Adjacency List is also faster Generative Seam finder, but by a larger margin
-     * 
-     */
 }
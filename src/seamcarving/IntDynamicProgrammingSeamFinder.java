@@ -0,0 +1,129 @@
+package seamcarving;
+
+/**
+ * Integer implementation of the dynamic programming {@link SeamFinder}. Energies are taken as {@code int} fixed-point
+ * numbers with {@link FixedPointEnergyFunction#FRACTION_BITS} fractional bits, and seam costs are accumulated in
+ * {@code long}, so every sum is exact and the inner loops compare and add integers only. Energies come straight from
+ * {@link FixedPointEnergyFunction#applyRowFixed(Picture, int, int[], int)} when the {@link EnergyFunction} supports it,
+ * and are otherwise converted from the {@code double} energies, which gives the same values. Lines, cells, and
+ * backpointers are as in {@link DynamicProgrammingSeamFinder}, and the buffers are borrowed from the calling thread's
+ * {@link Workspace}.
+ * <p>
+ * The seams can differ from those of {@link DynamicProgrammingSeamFinder} where two seams cost nearly the same, since
+ * each energy is truncated to a multiple of {@code 2^-FRACTION_BITS}. Truncation can turn a near tie into an exact tie,
+ * which is then broken towards the smaller index, or break a tie that {@code double} rounding error decided either way.
+ * The cost of the returned seam exceeds the minimum by at most {@code 2^-FRACTION_BITS} per line.
+ *
+ * @see SeamFinder
+ * @see FixedPointEnergyFunction
+ * @see DynamicProgrammingSeamFinder
+ */
+public class IntDynamicProgrammingSeamFinder implements SeamFinder {
+    /**
+     * The costs of the previous line of the DP table.
+     */
+    private static final Workspace.Slot PREVIOUS = new Workspace.Slot();
+    /**
+     * The costs of the current line of the DP table.
+     */
+    private static final Workspace.Slot CURRENT = new Workspace.Slot();
+    /**
+     * The fixed-point energies of the current line of the DP table.
+     */
+    private static final Workspace.Slot ENERGIES = new Workspace.Slot();
+    /**
+     * The {@code double} energies of the current line, for energy functions without fixed-point energies.
+     */
+    private static final Workspace.Slot DOUBLES = new Workspace.Slot();
+    /**
+     * The offset (-1, 0, or +1) to the cheapest neighbor in the previous line for each cell of the DP table.
+     */
+    private static final Workspace.Slot EDGE_TO = new Workspace.Slot();
+
+    @Override
+    public int[] findSeamArray(Picture picture, EnergyFunction f) {
+        return find(picture, f, false);
+    }
+
+    @Override
+    public int[] findVerticalSeamArray(Picture picture, EnergyFunction f) {
+        return find(picture, f, true);
+    }
+
+    /**
+     * Returns a minimum-energy seam in the given orientation, up to the fixed-point truncation of the energies.
+     *
+     * @param picture  the {@link Picture}.
+     * @param f        the {@link EnergyFunction}.
+     * @param vertical true to find a vertical seam in row-major order, false to find a horizontal seam.
+     * @return an array of the pixels to remove.
+     */
+    private static int[] find(Picture picture, EnergyFunction f, boolean vertical) {
+        int lines = vertical ? picture.height() : picture.width();
+        int length = vertical ? picture.width() : picture.height();
+        Workspace workspace = Workspace.get();
+        long[] previous = workspace.longs(PREVIOUS, length);
+        long[] current = workspace.longs(CURRENT, length);
+        int[] energies = workspace.ints(ENERGIES, length);
+        byte[] edgeTo = workspace.bytes(EDGE_TO, lines * length);
+        for (int i = 0; i < lines; i++) {
+            lineEnergies(picture, f, vertical, i, length, energies);
+            if (i == 0) {
+                for (int j = 0; j < length; j++) {
+                    previous[j] = energies[j];
+                }
+                continue;
+            }
+            int line = i * length;
+            for (int j = 0; j < length; j++) {
+                long min = Long.MAX_VALUE;
+                int mink = j;
+                for (int k = j - 1; k <= j + 1; k++) {
+                    if (k >= 0 && k < length && previous[k] < min) {
+                        min = previous[k];
+                        mink = k;
+                    }
+                }
+                edgeTo[line + j] = (byte) (mink - j);
+                current[j] = energies[j] + min;
+            }
+            long[] temp = previous;
+            previous = current;
+            current = temp;
+        }
+        return DynamicProgrammingSeamFinder.backtrack(previous, edgeTo, lines, length);
+    }
+
+    /**
+     * Stores the fixed-point energies of line i of the DP table into the given array.
+     *
+     * @param picture  the {@link Picture}.
+     * @param f        the {@link EnergyFunction}.
+     * @param vertical true if the lines are the rows of the picture, false if they are the columns.
+     * @param i        the line of the DP table.
+     * @param length   the number of cells in each line.
+     * @param energies the destination for the energies.
+     */
+    private static void lineEnergies(Picture picture, EnergyFunction f, boolean vertical, int i, int length,
+                                     int[] energies) {
+        int scale = 1 << FixedPointEnergyFunction.FRACTION_BITS;
+        if (f instanceof FixedPointEnergyFunction) {
+            FixedPointEnergyFunction fixed = (FixedPointEnergyFunction) f;
+            if (vertical) {
+                fixed.applyRowFixed(picture, i, energies, 0);
+            } else {
+                fixed.applyColumnFixed(picture, i, energies, 0);
+            }
+            return;
+        }
+        double[] doubles = Workspace.get().doubles(DOUBLES, length);
+        if (vertical) {
+            f.applyRow(picture, i, doubles, 0);
+        } else {
+            f.applyColumn(picture, i, doubles, 0);
+        }
+        for (int j = 0; j < length; j++) {
+            energies[j] = (int) (doubles[j] * scale);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package seamcarving;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+
+/**
+ * A {@link Picture} backed by a memory-mapped raw RGB file rather than a heap pixel buffer, for pictures that are too
+ * large to fit in memory. The operating system pages pixels in and out of memory as they are accessed, so seam finders
+ * that walk the picture row by row (such as {@link StreamingDynamicProgrammingSeamFinder}) only keep the rows they are
+ * working on resident.
+ * <p>
+ * The raw file starts with a 12-byte header of three big-endian {@code int} values: the stride, the width, and the
+ * height of the picture. The header is followed by {@code height} rows of {@code stride} 3-byte red-green-blue pixels.
+ * Seams are removed in place by shifting pixels within each row, so the stride never changes while the width and height
+ * in the header shrink. Use {@link #convert(File, File)} to create a raw file from a PNG or JPG image.
+ *
+ * @see Picture
+ * @see StreamingDynamicProgrammingSeamFinder
+ */
+public class MappedPicture extends Picture {
+    /**
+     * The number of bytes in the header.
+     */
+    private static final int HEADER_BYTES = 12;
+    /**
+     * The number of bytes in each pixel.
+     */
+    private static final int PIXEL_BYTES = 3;
+    /**
+     * Maximum number of bytes in each mapped band of rows.
+     */
+    private static final int MAX_BAND_BYTES = 1 << 30;
+    /**
+     * Maximum number of pixels decoded at once by {@link #convert(File, File)}.
+     */
+    private static final int MAX_CONVERT_PIXELS = 1 << 24;
+    /**
+     * The mapped header of the raw file.
+     */
+    private final MappedByteBuffer header;
+    /**
+     * The mapped bands of rows, each containing {@link #rowsPerBand} rows except for the last band.
+     */
+    private final MappedByteBuffer[] bands;
+    /**
+     * The number of bytes in each row, including pixels past the width that have been removed.
+     */
+    private final int rowBytes;
+    /**
+     * The number of rows in each mapped band.
+     */
+    private final int rowsPerBand;
+
+    /**
+     * Constructs a picture by mapping the given raw file into memory. Changes to the picture are written to the file.
+     *
+     * @param raw the raw RGB file.
+     * @throws IOException if an error occurs during mapping.
+     */
+    public MappedPicture(File raw) throws IOException {
+        try (FileChannel channel = FileChannel.open(raw.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+            int stride = header.getInt(0);
+            width = header.getInt(4);
+            height = header.getInt(8);
+            if (width <= 0 || height <= 0 || width > stride) {
+                throw new IOException("Invalid raw picture header: " + raw);
+            }
+            rowBytes = stride * PIXEL_BYTES;
+            rowsPerBand = Math.max(1, MAX_BAND_BYTES / rowBytes);
+            bands = new MappedByteBuffer[(height + rowsPerBand - 1) / rowsPerBand];
+            for (int i = 0; i < bands.length; i += 1) {
+                long position = HEADER_BYTES + (long) i * rowsPerBand * rowBytes;
+                long size = (long) Math.min(rowsPerBand, height - i * rowsPerBand) * rowBytes;
+                bands[i] = channel.map(FileChannel.MapMode.READ_WRITE, position, size);
+            }
+        }
+    }
+
+    /**
+     * Converts the given PNG or JPG image into a raw RGB file and returns the mapped picture. The image is decoded in
+     * bands of rows so that the whole image never needs to fit in memory at once.
+     *
+     * @param image the input image file.
+     * @param raw   the destination raw RGB file, which is overwritten.
+     * @return the mapped picture.
+     * @throws IOException if an error occurs during reading or writing.
+     */
+    public static MappedPicture convert(File image, File raw) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(image)) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                throw new IOException("Unsupported image format: " + image);
+            }
+            ImageReader reader = readers.next();
+            try (FileChannel channel = FileChannel.open(raw.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES).putInt(width).putInt(width).putInt(height);
+                buffer.flip();
+                channel.write(buffer);
+                int bandRows = Math.max(1, MAX_CONVERT_PIXELS / width);
+                ImageReadParam param = reader.getDefaultReadParam();
+                for (int y = 0; y < height; y += bandRows) {
+                    int rows = Math.min(bandRows, height - y);
+                    param.setSourceRegion(new Rectangle(0, y, width, rows));
+                    BufferedImage band = reader.read(0, param);
+                    int[] rgb = band.getRGB(0, 0, width, rows, null, 0, width);
+                    buffer = ByteBuffer.allocate(rgb.length * PIXEL_BYTES);
+                    for (int pixel : rgb) {
+                        buffer.put((byte) (pixel >> 16)).put((byte) (pixel >> 8)).put((byte) pixel);
+                    }
+                    buffer.flip();
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                }
+            } finally {
+                reader.dispose();
+            }
+        }
+        return new MappedPicture(raw);
+    }
+
+    /**
+     * Returns the band containing row y.
+     *
+     * @param y the y-index into the picture.
+     * @return the band containing row y.
+     */
+    private MappedByteBuffer band(int y) {
+        return bands[y / rowsPerBand];
+    }
+
+    /**
+     * Returns the position of pixel (x, y) in the band containing row y.
+     *
+     * @param x the x-index into the picture.
+     * @param y the y-index into the picture.
+     * @return the position of pixel (x, y) in its band.
+     */
+    private int position(int x, int y) {
+        return (y % rowsPerBand) * rowBytes + x * PIXEL_BYTES;
+    }
+
+    @Override
+    public int get(int x, int y) {
+        MappedByteBuffer band = band(y);
+        int i = position(x, y);
+        return ((band.get(i) & 0xFF) << 16) | ((band.get(i + 1) & 0xFF) << 8) | (band.get(i + 2) & 0xFF);
+    }
+
+    @Override
+    public void set(int x, int y, int rgb) {
+        MappedByteBuffer band = band(y);
+        int i = position(x, y);
+        band.put(i, (byte) (rgb >> 16));
+        band.put(i + 1, (byte) (rgb >> 8));
+        band.put(i + 2, (byte) rgb);
+    }
+
+    /**
+     * Forces any changes to the picture to be written to the raw file.
+     */
+    public void force() {
+        header.force();
+        for (MappedByteBuffer band : bands) {
+            band.force();
+        }
+    }
+
+    /**
+     * Reads the first {@code length} bytes of row y into the destination array.
+     *
+     * @param y      the y-index into the picture.
+     * @param dest   the destination array.
+     * @param length the number of bytes to read.
+     */
+    private void readRow(int y, byte[] dest, int length) {
+        ByteBuffer band = band(y).duplicate();
+        band.position(position(0, y));
+        band.get(dest, 0, length);
+    }
+
+    @Override
+    void removeVertical(int[] seam) {
+        byte[] tail = new byte[rowBytes];
+        for (int y = 0; y < height; y += 1) {
+            int length = (width - seam[y] - 1) * PIXEL_BYTES;
+            ByteBuffer band = band(y).duplicate();
+            band.position(position(seam[y] + 1, y));
+            band.get(tail, 0, length);
+            band.position(position(seam[y], y));
+            band.put(tail, 0, length);
+        }
+        width -= 1;
+        header.putInt(4, width);
+    }
+
+    @Override
+    void removeHorizontal(int[] seam) {
+        int length = width * PIXEL_BYTES;
+        byte[] row = new byte[rowBytes];
+        byte[] below = new byte[rowBytes];
+        readRow(0, below, length);
+        for (int y = 0; y < height - 1; y += 1) {
+            byte[] temp = row;
+            row = below;
+            below = temp;
+            readRow(y + 1, below, length);
+            boolean changed = false;
+            for (int x = 0; x < width; x += 1) {
+                if (seam[x] <= y) {
+                    int i = x * PIXEL_BYTES;
+                    row[i] = below[i];
+                    row[i + 1] = below[i + 1];
+                    row[i + 2] = below[i + 2];
+                    changed = true;
+                }
+            }
+            if (changed) {
+                ByteBuffer band = band(y).duplicate();
+                band.position(position(0, y));
+                band.put(row, 0, length);
+            }
+        }
+        height -= 1;
+        header.putInt(8, height);
+    }
+}
@@ -1,23 +1,89 @@
 package seamcarving;
 
 import graphs.Edge;
+import graphs.Graph;
+import graphs.IntGraph;
+import graphs.IntShortestPathSolver;
+import graphs.ShortestPathSolver;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
- * A node in a graph representation of a picture. Most nodes will represent real pixels in the picture, but some nodes
- * can also represent concepts such as source nodes and sink nodes that don't represent real pixels.
+ * A node in a graph representation of a picture, identified by its vertex id in an {@link IntGraph}. Most nodes will
+ * represent real pixels in the picture, but some nodes can also represent concepts such as source nodes and sink nodes
+ * that don't represent real pixels. Nodes let the generic {@link ShortestPathSolver} implementations run on the same
+ * pixel graphs as the {@link IntShortestPathSolver} implementations.
  *
  * @see AdjacencyListSeamFinder
  * @see GenerativeSeamFinder
  */
-interface Node {
+final class Node {
     /**
-     * Returns the {@link List} of right-up, right-middle, and right-down neighbors (if they exist) for this node.
+     * The vertex id of this node in the {@link IntGraph}.
+     */
+    final int id;
+
+    /**
+     * Constructs the node for the given vertex id.
+     *
+     * @param id the vertex id in the {@link IntGraph}.
+     */
+    Node(int id) {
+        this.id = id;
+    }
+
+    /**
+     * Returns an {@link IntShortestPathSolver} constructor that runs the given {@link ShortestPathSolver} on a
+     * {@link Graph} view of the {@link IntGraph}, whose edges are created as {@link Edge} objects when they are
+     * requested. The generic solvers keep their state in their own maps, so the {@link IntShortestPathSolver.Scratch}
+     * is not used.
      *
-     * @param picture the input picture.
-     * @param f       the input energy function.
-     * @return the {@link List} of right-up, right-middle, and right-down neighbors (if they exist) for this node.
+     * @param sps the {@link ShortestPathSolver} implementation.
+     * @return the {@link ShortestPathSolver} implementation adapted to {@link IntGraph} vertex ids.
      */
-    List<Edge<Node>> neighbors(Picture picture, EnergyFunction f);
+    static IntShortestPathSolver.Constructor adapt(ShortestPathSolver.Constructor<Node> sps) {
+        return (graph, start, scratch) -> {
+            ShortestPathSolver<Node> solver = sps.run(node -> neighbors(graph, node), new Node(start));
+            return goal -> {
+                List<Node> path = solver.solution(new Node(goal));
+                int[] result = new int[path.size()];
+                for (int i = 0; i < result.length; i += 1) {
+                    result[i] = path.get(i).id;
+                }
+                return result;
+            };
+        };
+    }
+
+    /**
+     * Returns the outgoing edges from the given node in the {@link IntGraph}.
+     *
+     * @param graph the input graph.
+     * @param node  the node of interest.
+     * @return the outgoing edges from the given node.
+     */
+    private static List<Edge<Node>> neighbors(IntGraph graph, Node node) {
+        int degree = graph.degree(node.id);
+        List<Edge<Node>> result = new ArrayList<>(degree);
+        for (int i = 0; i < degree; i += 1) {
+            result.add(new Edge<>(node, new Node(graph.neighbor(node.id, i)), graph.weight(node.id, i)));
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Node && ((Node) o).id == id;
+    }
+
+    @Override
+    public int hashCode() {
+        return Integer.hashCode(id);
+    }
+
+    @Override
+    public String toString() {
+        return "Node(" + id + ")";
+    }
 }
@@ -0,0 +1,349 @@
+package seamcarving;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Fork/join parallel dynamic programming implementation of the {@link SeamFinder} interface. Since every cell in a
+ * column (or row, for vertical seams) of the DP table only depends on the previous column, the table can be filled by
+ * splitting the lines into one chunk per thread of the {@link ForkJoinPool}.
+ * <p>
+ * Joining the tasks after every line would leave the threads waiting on each other for most of the fill, so the lines
+ * are filled in blocks of up to {@link #MAX_BLOCK_LINES} lines with two joins per block. First, the energies of the
+ * block are computed a whole row or column at a time with {@link EnergyFunction#applyRow(Picture, int, double[], int)}
+ * or {@link EnergyFunction#applyColumn(Picture, int, double[], int)}, with the lines split between the tasks. Then each
+ * task fills its chunk for every line of the block. A cell depends on a range of the previous line that is one cell
+ * wider on each side, so each task also fills a halo of cells beside its chunk that shrinks by one cell per line, and
+ * only the cells of its own chunk are kept. The blocks are kept short relative to the chunks so that little work is
+ * repeated. The {@link EnergyFunction} must be safe to call from multiple threads at once (as
+ * {@link DualGradientEnergyFunction} is).
+ * <p>
+ * Uses the same backpointers as {@link DynamicProgrammingSeamFinder} and returns exactly the same seams. Pictures with
+ * fewer than {@link #SEQUENTIAL_THRESHOLD} pixels are processed on the calling thread. The table and the costs between
+ * blocks are borrowed from the calling thread's {@link Workspace}, and the rolling lines of each task from the
+ * {@link Workspace} of the thread that runs it, so an instance can be shared between threads.
+ *
+ * @see DynamicProgrammingSeamFinder
+ * @see SeamFinder
+ * @see SeamCarver
+ */
+public class ParallelDynamicProgrammingSeamFinder implements SeamFinder {
+    /**
+     * Pictures with fewer pixels than this threshold are processed sequentially.
+     */
+    private static final int SEQUENTIAL_THRESHOLD = 1 << 16;
+    /**
+     * Minimum number of cells in a line of the DP table that are kept by a single task.
+     */
+    private static final int MIN_CELLS_PER_TASK = 128;
+    /**
+     * Maximum number of lines of the DP table filled between two joins of the tasks.
+     */
+    private static final int MAX_BLOCK_LINES = 64;
+    /**
+     * The costs of the line before the current block of the DP table.
+     */
+    private static final Workspace.Slot PREVIOUS = new Workspace.Slot();
+    /**
+     * The costs of the last line of the current block of the DP table.
+     */
+    private static final Workspace.Slot NEXT = new Workspace.Slot();
+    /**
+     * The energies of the current block of the DP table, one line after another.
+     */
+    private static final Workspace.Slot ENERGIES = new Workspace.Slot();
+    /**
+     * The offset (-1, 0, or +1) to the cheapest neighbor in the previous line for each cell of the DP table, laid out
+     * as in {@link DynamicProgrammingSeamFinder}.
+     */
+    private static final Workspace.Slot EDGE_TO = new Workspace.Slot();
+    /**
+     * The costs of the previous line filled by a task.
+     */
+    private static final Workspace.Slot TASK_PREVIOUS = new Workspace.Slot();
+    /**
+     * The costs of the current line filled by a task.
+     */
+    private static final Workspace.Slot TASK_CURRENT = new Workspace.Slot();
+    /**
+     * The {@link ForkJoinPool} that runs the tasks.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructs an instance that runs on the {@link ForkJoinPool#commonPool()}.
+     */
+    public ParallelDynamicProgrammingSeamFinder() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs an instance that runs on the given {@link ForkJoinPool}.
+     *
+     * @param pool the {@link ForkJoinPool}.
+     */
+    public ParallelDynamicProgrammingSeamFinder(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public int[] findSeamArray(Picture picture, EnergyFunction f) {
+        return find(picture, f, false);
+    }
+
+    @Override
+    public int[] findVerticalSeamArray(Picture picture, EnergyFunction f) {
+        return find(picture, f, true);
+    }
+
+    /**
+     * Returns a minimum-energy seam in the given orientation.
+     *
+     * @param picture  the {@link Picture}.
+     * @param f        the {@link EnergyFunction}.
+     * @param vertical true to find a vertical seam in row-major order, false to find a horizontal seam.
+     * @return an array of the pixels to remove.
+     */
+    private int[] find(Picture picture, EnergyFunction f, boolean vertical) {
+        int lines = vertical ? picture.height() : picture.width();
+        int length = vertical ? picture.width() : picture.height();
+        int chunks = 1;
+        if (lines * length >= SEQUENTIAL_THRESHOLD) {
+            chunks = Math.max(1, Math.min(pool.getParallelism(), length / MIN_CELLS_PER_TASK));
+        }
+        // A block about an eighth as long as the chunks are wide repeats at most about an eighth of the work.
+        int blockLines = chunks == 1 ? MAX_BLOCK_LINES : Math.max(1, Math.min(MAX_BLOCK_LINES, length / chunks / 8));
+        Workspace workspace = Workspace.get();
+        double[] previous = workspace.doubles(PREVIOUS, length);
+        double[] next = workspace.doubles(NEXT, length);
+        double[] energies = workspace.doubles(ENERGIES, blockLines * length);
+        byte[] edgeTo = workspace.bytes(EDGE_TO, lines * length);
+        for (int from = 0; from < lines; from += blockLines) {
+            int to = Math.min(lines, from + blockLines);
+            Block block = new Block(picture, f, vertical, length, from, to, energies, previous, next, edgeTo);
+            if (chunks == 1) {
+                for (int i = from; i < to; i += 1) {
+                    block.energies(i);
+                }
+                block.fill(0, length);
+            } else {
+                pool.invoke(new EnergyTask(block, from, to, Math.max(1, (to - from) / chunks)));
+                pool.invoke(new FillTask(block, chunks, 0, chunks));
+            }
+            double[] temp = previous;
+            previous = next;
+            next = temp;
+        }
+        return DynamicProgrammingSeamFinder.backtrack(previous, edgeTo, lines, length);
+    }
+
+    /**
+     * A block of consecutive lines of the DP table and the buffers shared by the tasks that fill it.
+     */
+    private static class Block {
+        /**
+         * The input picture.
+         */
+        private final Picture picture;
+        /**
+         * The input energy function.
+         */
+        private final EnergyFunction f;
+        /**
+         * True if the lines are the rows of the picture, false if they are the columns.
+         */
+        private final boolean vertical;
+        /**
+         * The number of cells in each line.
+         */
+        private final int length;
+        /**
+         * The first line of the block, inclusive.
+         */
+        private final int from;
+        /**
+         * The last line of the block, exclusive.
+         */
+        private final int to;
+        /**
+         * The energies of the lines of the block, one line after another.
+         */
+        private final double[] energies;
+        /**
+         * The costs of the line before the block, unused if the block starts at the first line.
+         */
+        private final double[] previous;
+        /**
+         * The destination for the costs of the last line of the block.
+         */
+        private final double[] next;
+        /**
+         * The backpointers of the DP table.
+         */
+        private final byte[] edgeTo;
+
+        /**
+         * Constructs the block of lines [from, to) of the DP table.
+         *
+         * @param picture  the input picture.
+         * @param f        the input energy function.
+         * @param vertical true if the lines are the rows of the picture, false if they are the columns.
+         * @param length   the number of cells in each line.
+         * @param from     the first line, inclusive.
+         * @param to       the last line, exclusive.
+         * @param energies the destination for the energies of the block.
+         * @param previous the costs of the line before the block.
+         * @param next     the destination for the costs of the last line of the block.
+         * @param edgeTo   the backpointers of the DP table.
+         */
+        Block(Picture picture, EnergyFunction f, boolean vertical, int length, int from, int to, double[] energies,
+              double[] previous, double[] next, byte[] edgeTo) {
+            this.picture = picture;
+            this.f = f;
+            this.vertical = vertical;
+            this.length = length;
+            this.from = from;
+            this.to = to;
+            this.energies = energies;
+            this.previous = previous;
+            this.next = next;
+            this.edgeTo = edgeTo;
+        }
+
+        /**
+         * Stores the energies of line i of the DP table into the energies of the block.
+         *
+         * @param i the line of the DP table, in the block.
+         */
+        void energies(int i) {
+            if (vertical) {
+                f.applyRow(picture, i, energies, (i - from) * length);
+            } else {
+                f.applyColumn(picture, i, energies, (i - from) * length);
+            }
+        }
+
+        /**
+         * Fills the cells [lo, hi) of every line of the block, along with the halo of cells needed to fill them, and
+         * stores the costs of those cells in the last line into {@link #next}.
+         *
+         * @param lo the first cell kept, inclusive.
+         * @param hi the last cell kept, exclusive.
+         */
+        void fill(int lo, int hi) {
+            Workspace workspace = Workspace.get();
+            double[] before = workspace.doubles(TASK_PREVIOUS, length);
+            double[] after = workspace.doubles(TASK_CURRENT, length);
+            int last = to - from - 1;
+            for (int t = 0; t <= last; t += 1) {
+                int i = from + t;
+                int start = Math.max(0, lo - (last - t));
+                int end = Math.min(length, hi + (last - t));
+                int energy = t * length;
+                if (i == 0) {
+                    System.arraycopy(energies, energy + start, after, start, end - start);
+                } else {
+                    double[] costs = t == 0 ? previous : before;
+                    int line = i * length;
+                    for (int j = start; j < end; j += 1) {
+                        // Check the neighbors in the same order as DynamicProgrammingSeamFinder to break ties alike.
+                        int mink = j;
+                        double min = costs[j];
+                        if (j > 0 && costs[j - 1] <= min) {
+                            min = costs[j - 1];
+                            mink = j - 1;
+                        }
+                        if (j < length - 1 && costs[j + 1] < min) {
+                            min = costs[j + 1];
+                            mink = j + 1;
+                        }
+                        after[j] = energies[energy + j] + min;
+                        if (j >= lo && j < hi) {
+                            edgeTo[line + j] = (byte) (mink - j);
+                        }
+                    }
+                }
+                double[] temp = before;
+                before = after;
+                after = temp;
+            }
+            System.arraycopy(before, lo, next, lo, hi - lo);
+        }
+    }
+
+    /**
+     * Computes the energies of a range of lines of a {@link Block}.
+     */
+    private static class EnergyTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final Block block;
+        private final int from;
+        private final int to;
+        private final int linesPerTask;
+
+        /**
+         * Constructs a task computing the energies of the lines [from, to).
+         *
+         * @param block        the block of the DP table.
+         * @param from         the first line, inclusive.
+         * @param to           the last line, exclusive.
+         * @param linesPerTask the number of lines below which the range is not split.
+         */
+        EnergyTask(Block block, int from, int to, int linesPerTask) {
+            this.block = block;
+            this.from = from;
+            this.to = to;
+            this.linesPerTask = linesPerTask;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= linesPerTask) {
+                for (int i = from; i < to; i += 1) {
+                    block.energies(i);
+                }
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new EnergyTask(block, from, mid, linesPerTask),
+                        new EnergyTask(block, mid, to, linesPerTask));
+            }
+        }
+    }
+
+    /**
+     * Fills a range of the chunks of a {@link Block}, each of which is filled by a single task.
+     */
+    private static class FillTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final Block block;
+        private final int chunks;
+        private final int from;
+        private final int to;
+
+        /**
+         * Constructs a task filling the chunks [from, to) out of the given number of chunks.
+         *
+         * @param block  the block of the DP table.
+         * @param chunks the number of chunks each line is split into.
+         * @param from   the first chunk, inclusive.
+         * @param to     the last chunk, exclusive.
+         */
+        FillTask(Block block, int chunks, int from, int to) {
+            this.block = block;
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                int length = block.length;
+                block.fill((int) ((long) from * length / chunks), (int) ((long) to * length / chunks));
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new FillTask(block, chunks, from, mid), new FillTask(block, chunks, mid, to));
+            }
+        }
+    }
+}
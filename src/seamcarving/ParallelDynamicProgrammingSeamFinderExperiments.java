@@ -0,0 +1,82 @@
+package seamcarving;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Time {@link ParallelDynamicProgrammingSeamFinder} on a 4000x3000 picture with pools of different numbers of threads,
+ * and report the speedup over a pool of one thread. Almost all of the time of a call is spent filling the DP table,
+ * since the seam is recovered from the backpointers in time linear in the number of lines. Speedups are bounded by the
+ * number of available processors printed on the first line.
+ *
+ * @see ParallelDynamicProgrammingSeamFinder
+ * @see DynamicProgrammingSeamFinder
+ */
+class ParallelDynamicProgrammingSeamFinderExperiments {
+    /**
+     * The width of the picture.
+     */
+    private static final int WIDTH = 4000;
+    /**
+     * The height of the picture.
+     */
+    private static final int HEIGHT = 3000;
+    /**
+     * The number of threads in each {@link ForkJoinPool}.
+     */
+    private static final int[] THREADS = new int[]{1, 2, 4, 8, 16};
+    /**
+     * Number of trials per pool. Making this smaller means experiments run faster.
+     */
+    private static final int NUM_TRIALS = 5;
+
+    public static void main(String[] args) {
+        EnergyFunction f = new DualGradientEnergyFunction();
+        Random random = new Random(0);
+        Picture picture = new Picture(WIDTH, HEIGHT);
+        for (int y = 0; y < HEIGHT; y += 1) {
+            for (int x = 0; x < WIDTH; x += 1) {
+                picture.set(x, y, random.nextInt(1 << 24));
+            }
+        }
+        System.out.println("Available processors: " + Runtime.getRuntime().availableProcessors());
+        double[] sequential = time(new DynamicProgrammingSeamFinder(), picture, f);
+        System.out.printf("%-24s  %14s  %8s  %12s  %8s%n", "Finder", "Horizontal (s)", "Speedup", "Vertical (s)",
+                "Speedup");
+        System.out.printf("%-24s  %14.4f  %8s  %12.4f  %8s%n", "DynamicProgramming", sequential[0], "",
+                sequential[1], "");
+        double[] base = null;
+        for (int threads : THREADS) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            double[] times = time(new ParallelDynamicProgrammingSeamFinder(pool), picture, f);
+            pool.shutdown();
+            if (base == null) {
+                base = times;
+            }
+            System.out.printf("%-24s  %14.4f  %7.2fx  %12.4f  %7.2fx%n", "Parallel, " + threads + " threads",
+                    times[0], base[0] / times[0], times[1], base[1] / times[1]);
+        }
+    }
+
+    /**
+     * Returns the best time in seconds to find a horizontal seam and a vertical seam in the picture.
+     *
+     * @param seamFinder the {@link SeamFinder}.
+     * @param picture    the {@link Picture}.
+     * @param f          the {@link EnergyFunction}.
+     * @return the best times to find a horizontal seam and a vertical seam.
+     */
+    private static double[] time(SeamFinder seamFinder, Picture picture, EnergyFunction f) {
+        double[] best = new double[]{Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY};
+        for (int i = 0; i < NUM_TRIALS; i += 1) {
+            long start = System.nanoTime();
+            seamFinder.findSeamArray(picture, f);
+            long middle = System.nanoTime();
+            seamFinder.findVerticalSeamArray(picture, f);
+            long end = System.nanoTime();
+            best[0] = Math.min(best[0], (middle - start) / 1e9);
+            best[1] = Math.min(best[1], (end - middle) / 1e9);
+        }
+        return best;
+    }
+}
@@ -4,28 +4,59 @@ import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.SplittableRandom;
 
 /**
- * A digital picture represented as red-green-blue color {@code int} pixels.
+ * A digital picture represented as red-green-blue color {@code int} pixels. Pixels are stored in a packed, row-major
+ * {@code int[]} buffer so that {@link #get(int, int)} and {@link #set(int, int, int)} are plain array accesses; a
+ * {@link BufferedImage} is only materialized when reading from or writing to a file.
  */
 public class Picture {
-    final BufferedImage image;
+    /**
+     * The packed, row-major pixel buffer. Pixel (x, y) is stored at index {@code y * stride + x}.
+     */
+    final int[] pixels;
+    /**
+     * The horizontal dimension of the picture.
+     */
+    int width;
+    /**
+     * The vertical dimension of the picture.
+     */
+    int height;
+    /**
+     * The distance in the {@link #pixels} buffer between the start of one row and the start of the next row.
+     */
+    final int stride;
+    /**
+     * The {@link ChannelPlanes} kept in sync with the {@link #pixels} buffer, or null if they have not been requested.
+     */
+    ChannelPlanes planes;
 
     /**
      * Constructs a null picture for subclassing purposes.
      */
     Picture() {
-        image = null;
+        pixels = null;
+        width = 0;
+        height = 0;
+        stride = 0;
     }
 
     /**
-     * Constructs a picture from the given image.
+     * Constructs a picture that takes ownership of the given row-major pixel buffer, which may be longer than needed.
      *
-     * @param image the input image.
+     * @param width  the horizontal dimension for the picture.
+     * @param height the vertical dimension for the picture.
+     * @param pixels the row-major pixel buffer with a stride equal to the width.
      */
-    private Picture(BufferedImage image) {
-        this.image = image;
+    Picture(int width, int height, int[] pixels) {
+        this.pixels = pixels;
+        this.width = width;
+        this.height = height;
+        this.stride = width;
     }
 
     /**
@@ -38,7 +69,10 @@ public class Picture {
         if (width <= 0 || height <= 0) {
             throw new IllegalArgumentException("Dimensions must be positive");
         }
-        image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        this.pixels = new int[width * height];
+        this.width = width;
+        this.height = height;
+        this.stride = width;
     }
 
     /**
@@ -48,9 +82,18 @@ public class Picture {
      */
     public Picture(Picture other) {
         this(other.width(), other.height());
-        for (int i = 0; i < other.width(); i += 1) {
-            for (int j = 0; j < other.height(); j += 1) {
-                this.set(i, j, other.get(i, j));
+        if (other.pixels == null) {
+            // Subclasses may not be backed by a pixel buffer, so fall back to copying each pixel.
+            for (int y = 0; y < height; y += 1) {
+                for (int x = 0; x < width; x += 1) {
+                    pixels[y * stride + x] = other.get(x, y);
+                }
+            }
+        } else if (other.stride == width) {
+            System.arraycopy(other.pixels, 0, pixels, 0, width * height);
+        } else {
+            for (int y = 0; y < height; y += 1) {
+                System.arraycopy(other.pixels, y * other.stride, pixels, y * stride, width);
             }
         }
     }
@@ -62,7 +105,34 @@ public class Picture {
      * @throws IOException if an error occurs during reading.
      */
     public Picture(File file) throws IOException {
-        image = ImageIO.read(file);
+        this(ImageIO.read(file), file);
+    }
+
+    /**
+     * Constructs a picture by reading an image from the given stream, such as an upload.
+     *
+     * @param input the input stream, which is not closed.
+     * @throws IOException if an error occurs during reading.
+     */
+    public Picture(InputStream input) throws IOException {
+        this(ImageIO.read(input), "stream");
+    }
+
+    /**
+     * Constructs a picture from the given decoded image.
+     *
+     * @param image  the decoded image, or null if the source could not be decoded.
+     * @param source the source of the image for error messages.
+     * @throws IOException if the image could not be decoded.
+     */
+    private Picture(BufferedImage image, Object source) throws IOException {
+        if (image == null) {
+            throw new IOException("Unsupported image format: " + source);
+        }
+        this.width = image.getWidth();
+        this.height = image.getHeight();
+        this.stride = width;
+        this.pixels = image.getRGB(0, 0, width, height, null, 0, width);
     }
 
     /**
@@ -73,14 +143,11 @@ public class Picture {
      * @return a new picture with the given width and height dimensions filled with randomly-generated colors.
      */
     public static Picture random(int width, int height) {
-        // https://codereview.stackexchange.com/a/244139
-        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
-        long bytesPerPixel = 4L;
-        for (int y = 0; y < height; y += 1) {
-            int[] row = new SplittableRandom().ints(bytesPerPixel * width, 0, 256).toArray();
-            image.getRaster().setPixels(0, y, width, 1, row);
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Dimensions must be positive");
         }
-        return new Picture(image);
+        int[] pixels = new SplittableRandom().ints((long) width * height, 0, 1 << 24).toArray();
+        return new Picture(width, height, pixels);
     }
 
     /**
@@ -91,7 +158,7 @@ public class Picture {
      * @return the 24-bit red-green-blue (RGB) color for the pixel (x, y).
      */
     public int get(int x, int y) {
-        return image.getRGB(x, y);
+        return pixels[y * stride + x];
     }
 
     /**
@@ -102,7 +169,10 @@ public class Picture {
      * @param rgb the 24-bit red-green-blue (RGB) color for the pixel (x, y).
      */
     public void set(int x, int y, int rgb) {
-        image.setRGB(x, y, rgb);
+        pixels[y * stride + x] = rgb;
+        if (planes != null) {
+            planes.set(x, y, rgb);
+        }
     }
 
     /**
@@ -111,7 +181,7 @@ public class Picture {
      * @return the width of the picture.
      */
     public int width() {
-        return image.getWidth();
+        return width;
     }
 
     /**
@@ -120,7 +190,129 @@ public class Picture {
      * @return the height of the picture.
      */
     public int height() {
-        return image.getHeight();
+        return height;
+    }
+
+    /**
+     * Removes the vertical seam from the picture in place by shifting the tail of each row one pixel to the left. The
+     * width shrinks by one while the backing buffer and its stride are kept, so no pixels are reallocated.
+     *
+     * @param seam the horizontal pixel index to remove from each row.
+     */
+    void removeVertical(int[] seam) {
+        for (int y = 0; y < height; y += 1) {
+            int row = y * stride;
+            System.arraycopy(pixels, row + seam[y] + 1, pixels, row + seam[y], width - seam[y] - 1);
+        }
+        if (planes != null) {
+            planes.removeVertical(seam, width, height);
+        }
+        width -= 1;
+    }
+
+    /**
+     * Removes the horizontal seam from the picture in place by shifting the pixels below the seam in each column one
+     * pixel up. The height shrinks by one while the backing buffer and its stride are kept, so no pixels are
+     * reallocated.
+     *
+     * @param seam the vertical pixel index to remove from each column.
+     */
+    void removeHorizontal(int[] seam) {
+        // Walk row by row rather than column by column to keep memory accesses sequential.
+        for (int y = 0; y < height - 1; y += 1) {
+            int row = y * stride;
+            for (int x = 0; x < width; x += 1) {
+                if (seam[x] <= y) {
+                    pixels[row + x] = pixels[row + stride + x];
+                }
+            }
+        }
+        if (planes != null) {
+            planes.removeHorizontal(seam, width, height);
+        }
+        height -= 1;
+    }
+
+    /**
+     * Inserts the vertical seam into the picture in place, undoing {@link #removeVertical(int[])}. The pixels right of
+     * the seam in each row are shifted one pixel right, and the width grows by one. The backing buffer must have room
+     * for the wider picture, as it does after a seam has been removed.
+     *
+     * @param seam   the horizontal pixel index to insert into each row.
+     * @param values the buffer holding the color of the inserted pixel in each row.
+     * @param offset the index in {@code values} of the color for row 0.
+     */
+    void insertVertical(int[] seam, int[] values, int offset) {
+        if (width == stride) {
+            throw new IllegalStateException("No room to insert a vertical seam");
+        }
+        for (int y = 0; y < height; y += 1) {
+            int row = y * stride;
+            System.arraycopy(pixels, row + seam[y], pixels, row + seam[y] + 1, width - seam[y]);
+            pixels[row + seam[y]] = values[offset + y];
+        }
+        if (planes != null) {
+            planes.insertVertical(seam, width, height);
+        }
+        width += 1;
+        if (planes != null) {
+            for (int y = 0; y < height; y += 1) {
+                planes.set(seam[y], y, values[offset + y]);
+            }
+        }
+    }
+
+    /**
+     * Inserts the horizontal seam into the picture in place, undoing {@link #removeHorizontal(int[])}. The pixels below
+     * the seam in each column are shifted one pixel down, and the height grows by one. The backing buffer must have
+     * room for the taller picture, as it does after a seam has been removed.
+     *
+     * @param seam   the vertical pixel index to insert into each column.
+     * @param values the buffer holding the color of the inserted pixel in each column.
+     * @param offset the index in {@code values} of the color for column 0.
+     */
+    void insertHorizontal(int[] seam, int[] values, int offset) {
+        if ((height + 1) * stride > pixels.length) {
+            throw new IllegalStateException("No room to insert a horizontal seam");
+        }
+        // Walk row by row from the bottom so that each pixel is moved before the pixel above overwrites it.
+        for (int y = height; y > 0; y -= 1) {
+            int row = y * stride;
+            for (int x = 0; x < width; x += 1) {
+                if (seam[x] < y) {
+                    pixels[row + x] = pixels[row - stride + x];
+                }
+            }
+        }
+        for (int x = 0; x < width; x += 1) {
+            pixels[seam[x] * stride + x] = values[offset + x];
+        }
+        if (planes != null) {
+            planes.insertHorizontal(seam, width, height);
+        }
+        height += 1;
+        if (planes != null) {
+            for (int x = 0; x < width; x += 1) {
+                planes.set(x, seam[x], values[offset + x]);
+            }
+        }
+    }
+
+    /**
+     * Returns the {@link ChannelPlanes} of this picture, building them on the first call. Once built, the planes are
+     * kept in sync when pixels are set or seams are removed, and energy functions such as
+     * {@link DualGradientEnergyFunction} read the planes instead of decoding the packed pixels.
+     *
+     * @return the {@link ChannelPlanes} of this picture.
+     * @throws IllegalStateException if the picture is not backed by a pixel buffer.
+     */
+    public ChannelPlanes planes() {
+        if (pixels == null) {
+            throw new IllegalStateException("Picture has no pixel buffer to split into planes");
+        } else if (planes == null) {
+            planes = new ChannelPlanes(this);
+        }
+        return planes;
     }
 
     /**
@@ -132,9 +324,38 @@ public class Picture {
     public void save(File file) throws IOException {
         String extension = file.getName().substring(file.getName().lastIndexOf('.') + 1);
         if ("jpg".equalsIgnoreCase(extension) || "png".equalsIgnoreCase(extension)) {
-            ImageIO.write(image, extension, file);
+            ImageIO.write(toImage(), extension, file);
         } else {
             throw new IllegalArgumentException("File must end in .jpg or .png");
         }
     }
+
+    /**
+     * Writes the picture as a PNG to the given stream.
+     *
+     * @param output the output stream, which is not closed.
+     * @throws IOException if an error occurs during writing.
+     */
+    public void save(OutputStream output) throws IOException {
+        ImageIO.write(toImage(), "png", output);
+    }
+
+    /**
+     * Returns a new {@link BufferedImage} containing the pixels of this picture.
+     *
+     * @return a new {@link BufferedImage} containing the pixels of this picture.
+     */
+    private BufferedImage toImage() {
+        BufferedImage image = new BufferedImage(width(), height(), BufferedImage.TYPE_INT_RGB);
+        if (pixels == null) {
+            for (int y = 0; y < height(); y += 1) {
+                for (int x = 0; x < width(); x += 1) {
+                    image.setRGB(x, y, get(x, y));
+                }
+            }
+        } else {
+            image.setRGB(0, 0, width, height, pixels, 0, stride);
+        }
+        return image;
+    }
 }
@@ -0,0 +1,141 @@
+package seamcarving;
+
+/**
+ * Coarse-to-fine implementation of the {@link SeamFinder} interface. The picture is downsampled by a factor of two per
+ * level, a minimum-energy seam is found on the coarsest level with a {@link DynamicProgrammingSeamFinder}, and the seam
+ * is then refined at each finer level by a DP restricted to a narrow band around the upsampled seam. Each refinement
+ * only computes the energies of O(band &times; length) pixels, so large pictures with wide low-energy valleys are
+ * carved much faster than with a full-resolution DP.
+ * <p>
+ * The returned seam is not guaranteed to have minimum cost: a seam that is cheaper at full resolution but hidden by
+ * the downsampling, or that leaves the band, will be missed. Pictures too small to downsample are searched exactly.
+ * As with {@link DynamicProgrammingSeamFinder}, the buffers are borrowed from the calling thread's {@link Workspace},
+ * so an instance can be shared between threads.
+ *
+ * @see SeamFinder
+ * @see ScaledPicture
+ * @see DynamicProgrammingSeamFinder
+ */
+public class PyramidSeamFinder implements SeamFinder {
+    /**
+     * Smallest width or height of the coarsest level of the pyramid.
+     */
+    private static final int MIN_LEVEL_SIZE = 32;
+    /**
+     * The first cell in the band of each line.
+     */
+    private static final Workspace.Slot LOW = new Workspace.Slot();
+    /**
+     * The pixels of the coarsest level of the pyramid.
+     */
+    private static final Workspace.Slot PIXELS = new Workspace.Slot();
+    /**
+     * The maximum number of times the picture is downsampled.
+     */
+    private final int levels;
+    /**
+     * The number of cells on each side of the upsampled seam searched when refining a level.
+     */
+    private final int radius;
+    /**
+     * The {@link SeamFinder} for the coarsest level, or for pictures too small to downsample.
+     */
+    private final DynamicProgrammingSeamFinder coarseFinder = new DynamicProgrammingSeamFinder();
+
+    /**
+     * Constructs a finder that downsamples up to two times, to a sixteenth of the pixels, and refines within four
+     * pixels of the upsampled seam.
+     */
+    public PyramidSeamFinder() {
+        this(2, 4);
+    }
+
+    /**
+     * Constructs a finder that downsamples up to the given number of times and refines within the given radius.
+     *
+     * @param levels the maximum number of times the picture is downsampled by a factor of two.
+     * @param radius the number of cells on each side of the upsampled seam searched at each finer level.
+     */
+    public PyramidSeamFinder(int levels, int radius) {
+        if (levels < 0) {
+            throw new IllegalArgumentException("Levels cannot be negative: " + levels);
+        } else if (radius < 1) {
+            throw new IllegalArgumentException("Radius must be positive: " + radius);
+        }
+        this.levels = levels;
+        this.radius = radius;
+    }
+
+    @Override
+    public int[] findSeamArray(Picture picture, EnergyFunction f) {
+        return find(picture, f, false);
+    }
+
+    @Override
+    public int[] findVerticalSeamArray(Picture picture, EnergyFunction f) {
+        return find(picture, f, true);
+    }
+
+    /**
+     * Returns a low-energy seam in the given orientation, found coarse to fine.
+     *
+     * @param picture  the {@link Picture}.
+     * @param f        the {@link EnergyFunction}.
+     * @param vertical true to find a vertical seam, false to find a horizontal seam.
+     * @return an array of the pixels to remove.
+     */
+    private int[] find(Picture picture, EnergyFunction f, boolean vertical) {
+        int level = 0;
+        while (level < levels
+                && Math.min(picture.width(), picture.height()) >> (level + 1) >= MIN_LEVEL_SIZE) {
+            level += 1;
+        }
+        if (level == 0) {
+            return vertical ? coarseFinder.findVerticalSeamArray(picture, f) : coarseFinder.findSeamArray(picture, f);
+        }
+        // The coarsest level is small, so copy it into a pixel buffer for the full DP.
+        Picture scaled = new ScaledPicture(picture, 1 << level);
+        int width = scaled.width();
+        int height = scaled.height();
+        int[] pixels = Workspace.get().ints(PIXELS, width * height);
+        for (int y = 0; y < height; y += 1) {
+            for (int x = 0; x < width; x += 1) {
+                pixels[y * width + x] = scaled.get(x, y);
+            }
+        }
+        Picture coarse = new Picture(width, height, pixels);
+        int[] indices = vertical
+                ? coarseFinder.findVerticalSeamArray(coarse, f) : coarseFinder.findSeamArray(coarse, f);
+        for (level -= 1; level >= 0; level -= 1) {
+            Picture fine = level == 0 ? picture : new ScaledPicture(picture, 1 << level);
+            indices = refine(fine, f, vertical, indices);
+        }
+        return indices;
+    }
+
+    /**
+     * Returns the minimum-energy seam of the picture among the seams within {@link #radius} cells of the upsampled
+     * coarse seam. Lines and cells are as in {@link DynamicProgrammingSeamFinder}.
+     *
+     * @param picture  the {@link Picture} at this level.
+     * @param f        the {@link EnergyFunction}.
+     * @param vertical true to refine a vertical seam, false to refine a horizontal seam.
+     * @param coarse   the seam at the next coarser level.
+     * @return the refined seam at this level.
+     */
+    private int[] refine(Picture picture, EnergyFunction f, boolean vertical, int[] coarse) {
+        int lines = vertical ? picture.height() : picture.width();
+        int length = vertical ? picture.width() : picture.height();
+        // Each coarse cell covers two fine cells, and consecutive coarse cells differ by at most one, so bands of
+        // 2 * radius + 2 cells around the covered cells always overlap between consecutive lines.
+        int band = Math.min(2 * radius + 2, length);
+        int[] low = Workspace.get().ints(LOW, lines);
+        for (int i = 0; i < lines; i += 1) {
+            int center = 2 * coarse[Math.min(i / 2, coarse.length - 1)];
+            low[i] = Math.max(0, Math.min(center - radius, length - band));
+        }
+        int[] seam = new int[lines];
+        BandedSeamSearch.search(picture, f, vertical, low, band, seam);
+        return seam;
+    }
+}
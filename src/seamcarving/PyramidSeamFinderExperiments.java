@@ -0,0 +1,99 @@
+package seamcarving;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Compare the time and seam cost of {@link PyramidSeamFinder} against the exact {@link DynamicProgrammingSeamFinder}.
+ * Each image is enlarged to multi-megapixel sizes by repeating every pixel, and the deviation is reported as the
+ * percentage by which the pyramid seam costs more than the minimum-cost seam.
+ *
+ * @see PyramidSeamFinder
+ * @see DynamicProgrammingSeamFinder
+ */
+class PyramidSeamFinderExperiments {
+    /**
+     * The base directory path for the images.
+     */
+    private static final String BASE_PATH = "data/seamcarving/";
+    /**
+     * The image files (.png) in the {@link #BASE_PATH} to enlarge.
+     */
+    private static final String[] FILES = new String[]{
+            "chameleon",
+            "HJoceanSmall"
+    };
+    /**
+     * Factors by which the width and height of each image are enlarged.
+     */
+    private static final int[] UPSCALES = new int[]{1, 4, 8};
+    /**
+     * Number of trials per image. Making this smaller means experiments run faster.
+     */
+    private static final int NUM_TRIALS = 3;
+
+    public static void main(String[] args) throws IOException {
+        EnergyFunction f = new DualGradientEnergyFunction();
+        SeamFinder exact = new DynamicProgrammingSeamFinder();
+        SeamFinder pyramid = new PyramidSeamFinder();
+        System.out.printf("%-20s  %12s  %10s  %11s  %12s  %12s%n",
+                "File", "Size", "DP (s)", "Pyramid (s)", "DP cost", "Deviation");
+        for (String fileName : FILES) {
+            Picture original = new Picture(new File(BASE_PATH + fileName + ".png"));
+            for (int upscale : UPSCALES) {
+                Picture picture = enlarge(original, upscale);
+                double exactTime = 0.0;
+                double pyramidTime = 0.0;
+                List<Integer> exactSeam = null;
+                List<Integer> pyramidSeam = null;
+                for (int i = 0; i < NUM_TRIALS; i += 1) {
+                    long start = System.nanoTime();
+                    exactSeam = exact.findVerticalSeam(picture, f);
+                    exactTime += (System.nanoTime() - start) / 1e9;
+                    start = System.nanoTime();
+                    pyramidSeam = pyramid.findVerticalSeam(picture, f);
+                    pyramidTime += (System.nanoTime() - start) / 1e9;
+                }
+                double exactCost = cost(picture, f, exactSeam);
+                double pyramidCost = cost(picture, f, pyramidSeam);
+                System.out.printf("%-20s  %12s  %10.4f  %11.4f  %12.1f  %11.2f%%%n", fileName + ".png",
+                        picture.width() + "x" + picture.height(), exactTime / NUM_TRIALS, pyramidTime / NUM_TRIALS,
+                        exactCost, 100 * (pyramidCost - exactCost) / exactCost);
+            }
+        }
+    }
+
+    /**
+     * Returns a copy of the picture enlarged by repeating each pixel in a square block.
+     *
+     * @param picture the picture to enlarge.
+     * @param upscale the width and height of the block for each pixel.
+     * @return the enlarged picture.
+     */
+    private static Picture enlarge(Picture picture, int upscale) {
+        Picture result = new Picture(picture.width() * upscale, picture.height() * upscale);
+        for (int y = 0; y < result.height(); y += 1) {
+            for (int x = 0; x < result.width(); x += 1) {
+                result.set(x, y, picture.get(x / upscale, y / upscale));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the total energy of the pixels in the vertical seam.
+     *
+     * @param picture the {@link Picture}.
+     * @param f       the {@link EnergyFunction}.
+     * @param seam    the vertical seam.
+     * @return the total energy of the pixels in the seam.
+     */
+    private static double cost(Picture picture, EnergyFunction f, List<Integer> seam) {
+        double total = 0.0;
+        for (int y = 0; y < seam.size(); y += 1) {
+            total += f.apply(picture, seam.get(y), y);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,310 @@
+package seamcarving;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Precomputed seam removal order of a picture in one orientation, for serving the same picture at many sizes. Building
+ * the index carves seams from a copy of the picture until it is {@link #MIN_SIZE} pixels across, recording for each
+ * pixel of the original picture the rank of the seam that removed it. Pixels never removed share the highest rank.
+ * <p>
+ * Since every seam removes exactly one pixel from each line, keeping the pixels of rank at least {@code n} in each line
+ * produces exactly the picture left by carving the first {@code n} seams. {@link #retarget(Picture, int)} therefore
+ * resizes the original picture to any size in a single pass over its pixels, without computing any energies or seams.
+ * The index can be saved next to the image with {@link #save(File)}, storing each rank in two bytes when it fits.
+ *
+ * @see SeamCarver
+ */
+public class RetargetingIndex {
+    /**
+     * The smallest number of pixels across that the index carves down to, since the {@link DualGradientEnergyFunction}
+     * needs at least three pixels in each line.
+     */
+    public static final int MIN_SIZE = 3;
+    /**
+     * Identifies saved index files.
+     */
+    private static final int MAGIC = 0x52544958;
+    /**
+     * Path to the input image.
+     */
+    private static final String INPUT_PATH = "data/seamcarving/HJoceanSmall.png";
+    /**
+     * True if the index removes vertical seams to reduce the width, false if it removes horizontal seams to reduce the
+     * height.
+     */
+    private final boolean vertical;
+    /**
+     * The width of the original picture.
+     */
+    private final int width;
+    /**
+     * The height of the original picture.
+     */
+    private final int height;
+    /**
+     * The number of seams removed when building the index, which is the rank of the pixels never removed.
+     */
+    private final int seams;
+    /**
+     * The rank of the seam that removed each pixel of the original picture, in row-major order.
+     */
+    private final int[] ranks;
+
+    /**
+     * Constructs an index from the given ranks.
+     *
+     * @param vertical true for an index of vertical seams, false for horizontal seams.
+     * @param width    the width of the original picture.
+     * @param height   the height of the original picture.
+     * @param seams    the number of seams removed.
+     * @param ranks    the rank of the seam that removed each pixel, in row-major order.
+     */
+    private RetargetingIndex(boolean vertical, int width, int height, int seams, int[] ranks) {
+        this.vertical = vertical;
+        this.width = width;
+        this.height = height;
+        this.seams = seams;
+        this.ranks = ranks;
+    }
+
+    /**
+     * Builds an index of vertical seams for reducing the width of the picture. The picture is not modified.
+     *
+     * @param picture    the {@link Picture}.
+     * @param f          the {@link EnergyFunction}.
+     * @param seamFinder the {@link SeamFinder}.
+     * @return an index of vertical seams for the picture.
+     */
+    public static RetargetingIndex vertical(Picture picture, EnergyFunction f, SeamFinder seamFinder) {
+        return build(picture, f, seamFinder, true);
+    }
+
+    /**
+     * Builds an index of horizontal seams for reducing the height of the picture. The picture is not modified.
+     *
+     * @param picture    the {@link Picture}.
+     * @param f          the {@link EnergyFunction}.
+     * @param seamFinder the {@link SeamFinder}.
+     * @return an index of horizontal seams for the picture.
+     */
+    public static RetargetingIndex horizontal(Picture picture, EnergyFunction f, SeamFinder seamFinder) {
+        return build(picture, f, seamFinder, false);
+    }
+
+    public static void main(String[] args) throws IOException {
+        Picture picture = new Picture(new File(INPUT_PATH));
+        EnergyFunction f = new DualGradientEnergyFunction();
+        long start = System.nanoTime();
+        RetargetingIndex index = vertical(picture, f, new DynamicProgrammingSeamFinder());
+        System.out.printf("Built vertical index of %dx%d in %.3f s%n", picture.width(), picture.height(),
+                (System.nanoTime() - start) / 1e9);
+
+        for (int width : new int[]{480, 400, 320, 240, 160}) {
+            start = System.nanoTime();
+            Picture indexed = index.retarget(picture, width);
+            double indexSeconds = (System.nanoTime() - start) / 1e9;
+            start = System.nanoTime();
+            SeamCarver seamCarver = new SeamCarver(new Picture(picture), f, new DynamicProgrammingSeamFinder());
+            seamCarver.resizeTo(width, picture.height());
+            double carveSeconds = (System.nanoTime() - start) / 1e9;
+            boolean same = equal(indexed, seamCarver.picture());
+            System.out.printf("width %4d: index %.4f s, carve %.3f s, identical %b%n",
+                    width, indexSeconds, carveSeconds, same);
+        }
+    }
+
+    /**
+     * Returns true if the two pictures have the same dimensions and pixels.
+     *
+     * @param a the first picture.
+     * @param b the second picture.
+     * @return true if the two pictures have the same dimensions and pixels.
+     */
+    private static boolean equal(Picture a, Picture b) {
+        if (a.width() != b.width() || a.height() != b.height()) {
+            return false;
+        }
+        for (int y = 0; y < a.height(); y += 1) {
+            for (int x = 0; x < a.width(); x += 1) {
+                if (a.get(x, y) != b.get(x, y)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Builds an index by carving seams in the given orientation from a copy of the picture. A second picture of the
+     * same size holds the original position of each remaining pixel along its line, and has the same seams removed, so
+     * that the pixels removed by each seam can be traced back to the original picture.
+     *
+     * @param picture    the {@link Picture}.
+     * @param f          the {@link EnergyFunction}.
+     * @param seamFinder the {@link SeamFinder}.
+     * @param vertical   true to remove vertical seams, false to remove horizontal seams.
+     * @return the index.
+     */
+    private static RetargetingIndex build(Picture picture, EnergyFunction f, SeamFinder seamFinder,
+                                          boolean vertical) {
+        int width = picture.width();
+        int height = picture.height();
+        int size = vertical ? width : height;
+        int seams = Math.max(0, size - MIN_SIZE);
+        Picture positions = new Picture(width, height);
+        for (int y = 0; y < height; y += 1) {
+            for (int x = 0; x < width; x += 1) {
+                positions.pixels[y * width + x] = vertical ? x : y;
+            }
+        }
+        int[] ranks = new int[width * height];
+        Arrays.fill(ranks, seams);
+        SeamCarver seamCarver = new SeamCarver(new Picture(picture), f, seamFinder);
+        int[] seam = new int[vertical ? height : width];
+        for (int rank = 0; rank < seams; rank += 1) {
+            List<Integer> removed = vertical ? seamCarver.removeVertical() : seamCarver.removeHorizontal();
+            for (int i = 0; i < seam.length; i += 1) {
+                seam[i] = removed.get(i);
+                if (vertical) {
+                    ranks[i * width + positions.get(seam[i], i)] = rank;
+                } else {
+                    ranks[positions.get(i, seam[i]) * width + i] = rank;
+                }
+            }
+            if (vertical) {
+                positions.removeVertical(seam);
+            } else {
+                positions.removeHorizontal(seam);
+            }
+        }
+        return new RetargetingIndex(vertical, width, height, seams, ranks);
+    }
+
+    /**
+     * Returns true if the index removes vertical seams to reduce the width, false if it removes horizontal seams to
+     * reduce the height.
+     *
+     * @return true for an index of vertical seams, false for horizontal seams.
+     */
+    public boolean isVertical() {
+        return vertical;
+    }
+
+    /**
+     * Returns the smallest width, or height for an index of horizontal seams, that the index can produce.
+     *
+     * @return the smallest size that the index can produce.
+     */
+    public int minSize() {
+        return (vertical ? width : height) - seams;
+    }
+
+    /**
+     * Returns the rank of the seam that removes the given pixel of the original picture, or the number of seams in the
+     * index if the pixel is never removed.
+     *
+     * @param x the column index.
+     * @param y the row index.
+     * @return the rank of the seam that removes the pixel.
+     */
+    public int rank(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            throw new IndexOutOfBoundsException("(" + x + ", " + y + ") outside " + width + "x" + height);
+        }
+        return ranks[y * width + x];
+    }
+
+    /**
+     * Returns a new picture of the original picture resized to the given width, or height for an index of horizontal
+     * seams, by keeping the pixels removed by none of the first seams. The original picture is not modified.
+     *
+     * @param picture the original picture that the index was built from.
+     * @param size    the target width, or height for an index of horizontal seams.
+     * @return a new picture resized to the given size.
+     */
+    public Picture retarget(Picture picture, int size) {
+        if (picture.width() != width || picture.height() != height) {
+            throw new IllegalArgumentException("Index is for " + width + "x" + height + " pictures, not "
+                    + picture.width() + "x" + picture.height());
+        } else if (size < minSize() || size > (vertical ? width : height)) {
+            throw new IllegalArgumentException("Size must be between " + minSize() + " and "
+                    + (vertical ? width : height) + ": " + size);
+        }
+        int threshold = (vertical ? width : height) - size;
+        Picture result = vertical ? new Picture(size, height) : new Picture(width, size);
+        // The number of pixels kept so far in each column, which is the output row of the next pixel kept.
+        int[] kept = vertical ? null : new int[width];
+        // Read the source through get so that pictures not backed by a pixel buffer also work.
+        for (int y = 0, out = 0; y < height; y += 1) {
+            for (int x = 0; x < width; x += 1) {
+                if (ranks[y * width + x] >= threshold) {
+                    if (vertical) {
+                        result.pixels[out++] = picture.get(x, y);
+                    } else {
+                        result.pixels[kept[x]++ * width + x] = picture.get(x, y);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Saves the index to the given file. Ranks are stored in two bytes each if there are fewer than 65536 seams, and
+     * four bytes otherwise.
+     *
+     * @param file the file path.
+     * @throws IOException if an error occurs during writing.
+     */
+    public void save(File file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeBoolean(vertical);
+            out.writeInt(width);
+            out.writeInt(height);
+            out.writeInt(seams);
+            boolean compact = seams < 1 << 16;
+            for (int rank : ranks) {
+                if (compact) {
+                    out.writeShort(rank);
+                } else {
+                    out.writeInt(rank);
+                }
+            }
+        }
+    }
+
+    /**
+     * Loads an index saved with {@link #save(File)}.
+     *
+     * @param file the file path.
+     * @return the index.
+     * @throws IOException if an error occurs during reading or the file is not an index.
+     */
+    public static RetargetingIndex load(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a retargeting index: " + file);
+            }
+            boolean vertical = in.readBoolean();
+            int width = in.readInt();
+            int height = in.readInt();
+            int seams = in.readInt();
+            boolean compact = seams < 1 << 16;
+            int[] ranks = new int[width * height];
+            for (int i = 0; i < ranks.length; i += 1) {
+                ranks[i] = compact ? in.readUnsignedShort() : in.readInt();
+            }
+            return new RetargetingIndex(vertical, width, height, seams, ranks);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package seamcarving;
+
+import java.io.File;
+
+/**
+ * Read-only downsampled view of a {@link Picture} in which each pixel is the average color of a square block of pixels
+ * in the underlying picture. Blocks along the right and bottom edges may be cut short by the picture's boundary.
+ *
+ * @see Picture
+ * @see PyramidSeamFinder
+ */
+class ScaledPicture extends Picture {
+    /**
+     * The underlying {@link Picture}.
+     */
+    private final Picture picture;
+    /**
+     * The width and height of the block of underlying pixels averaged into each pixel of this view.
+     */
+    private final int scale;
+
+    /**
+     * Constructs a view of the given picture downsampled by the given factor in each dimension.
+     *
+     * @param picture the underlying picture.
+     * @param scale   the downsampling factor.
+     */
+    ScaledPicture(Picture picture, int scale) {
+        if (scale <= 0) {
+            throw new IllegalArgumentException("Scale must be positive: " + scale);
+        }
+        this.picture = picture;
+        this.scale = scale;
+    }
+
+    @Override
+    public int get(int x, int y) {
+        if (x < 0 || y < 0 || x >= width() || y >= height()) {
+            throw new IndexOutOfBoundsException("(" + x + ", " + y + ") outside " + width() + "x" + height());
+        }
+        int right = Math.min((x + 1) * scale, picture.width());
+        int bottom = Math.min((y + 1) * scale, picture.height());
+        int red = 0;
+        int green = 0;
+        int blue = 0;
+        for (int j = y * scale; j < bottom; j += 1) {
+            for (int i = x * scale; i < right; i += 1) {
+                int rgb = picture.get(i, j);
+                red += (rgb >> 16) & 0xFF;
+                green += (rgb >> 8) & 0xFF;
+                blue += rgb & 0xFF;
+            }
+        }
+        int count = (right - x * scale) * (bottom - y * scale);
+        return (red / count) << 16 | (green / count) << 8 | blue / count;
+    }
+
+    @Override
+    public void set(int x, int y, int rgb) {
+        throw new UnsupportedOperationException("Scaled picture is immutable");
+    }
+
+    @Override
+    public int width() {
+        return (picture.width() + scale - 1) / scale;
+    }
+
+    @Override
+    public int height() {
+        return (picture.height() + scale - 1) / scale;
+    }
+
+    @Override
+    public void save(File file) {
+        throw new UnsupportedOperationException("Scaled picture cannot be saved");
+    }
+}
@@ -1,14 +1,20 @@
 package seamcarving;
 
-import graphs.DijkstraSolver;
+import graphs.IntDijkstraSolver;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Seam carving, an approach for content-aware image resizing. Given a {@link Picture}, an {@link EnergyFunction}, and a
- * {@link SeamFinder} algorithm, {@link #removeHorizontal()} or {@link #removeVertical()} seams from the picture.
+ * {@link SeamFinder} algorithm, {@link #removeHorizontal()} or {@link #removeVertical()} seams from the picture, or
+ * remove many seams at once with {@link #resizeTo(int, int)}. After {@link #enableHistory()}, removed seams are kept in a
+ * compact undo log, so the most recently removed seams can be inserted again with {@link #restoreHorizontal(int)} or
+ * {@link #restoreVertical(int)}.
+ * Pictures are enlarged by duplicating low-energy seams with {@link #insertHorizontal(int)} or
+ * {@link #insertVertical(int)}.
  *
  * @see Picture
  * @see EnergyFunction
@@ -24,17 +30,31 @@ public class SeamCarver {
      */
     private static final String OUTPUT_PATH = "result.png";
     /**
-     * The {@link EnergyFunction} for determining the minimum-cost seam.
+     * The {@link EnergyFunction} implementation.
      */
     private final EnergyFunction f;
+    /**
+     * The cached {@link EnergyFunction} values for determining the minimum-cost seam, maintained across removals.
+     */
+    private EnergyMap energies;
     /**
      * The {@link SeamFinder} implementation.
      */
     private final SeamFinder seamFinder;
     /**
-     * The {@link Picture}.
+     * The {@link Picture}, owned by this seam carver so that seams can be removed from its pixel buffer in place. It is
+     * only replaced when seams are inserted, since the pixel buffer cannot grow.
      */
     private Picture picture;
+    /**
+     * The {@link DynamicProgrammingSeamFinder} for finding several seams per pass around the seam found by
+     * {@link #seamFinder} when it is not one.
+     */
+    private DynamicProgrammingSeamFinder multiSeamFinder;
+    /**
+     * The undo log of the removed seams, or null if it is not enabled.
+     */
+    private SeamHistory history;
 
     /**
      * Constructs a seam carver by reading the {@link Picture} from the file, using the given {@link EnergyFunction} and
@@ -46,49 +66,93 @@ public class SeamCarver {
      * @throws IOException if an error occurs during reading.
      */
     public SeamCarver(File file, EnergyFunction f, SeamFinder seamFinder) throws IOException {
-        if (file == null || f == null || seamFinder == null) {
+        this(new Picture(file), f, seamFinder);
+    }
+
+    /**
+     * Constructs a seam carver for the given {@link Picture}, using the given {@link EnergyFunction} and
+     * {@link SeamFinder} implementations. Seams are removed from the picture in place, so callers that need to keep
+     * the original picture should pass a copy. A {@link MappedPicture} is carved in place in its raw file, in which case
+     * pair it with a {@link StreamingDynamicProgrammingSeamFinder} to keep memory use low.
+     * <p>
+     * Energies are cached between seams only if the energy function reports its
+     * {@link EnergyFunction#stencilRadius()}, since the carver must know how far from a removed or inserted seam the
+     * energies change. Energy functions that keep the default radius of -1 are recomputed for every pixel of every
+     * seam, so custom energy functions should override it.
+     * <p>
+     * To have {@link DualGradientEnergyFunction} read separate color planes instead of packed pixels, call
+     * {@link Picture#planes()} on the picture before constructing the carver. The carver then keeps the planes in sync
+     * as seams are removed and inserted.
+     *
+     * @param picture    the picture to carve.
+     * @param f          the {@link EnergyFunction}.
+     * @param seamFinder the {@link SeamFinder}.
+     */
+    public SeamCarver(Picture picture, EnergyFunction f, SeamFinder seamFinder) {
+        if (picture == null || f == null || seamFinder == null) {
             throw new IllegalArgumentException("Arguments cannot be null");
         }
-        this.picture = new Picture(file);
+        // Pictures that are neither backed by a pixel buffer nor mapped from a file cannot be carved in place.
+        if (picture.pixels == null && !(picture instanceof MappedPicture)) {
+            picture = new Picture(picture);
+        }
+        this.picture = picture;
         this.f = f;
+        this.energies = new EnergyMap(this.picture, f);
         this.seamFinder = seamFinder;
     }
 
+    /**
+     * Starts keeping the seams removed from now on in an undo log, so that they can be restored. The log grows by about
+     * five bytes per removed pixel, so it is off by default. Does nothing if the log is already enabled.
+     *
+     * @throws IllegalStateException if the picture is a {@link MappedPicture}, whose removed pixels are not kept.
+     */
+    public void enableHistory() {
+        if (picture.pixels == null) {
+            throw new IllegalStateException("Cannot keep an undo log for a mapped picture");
+        }
+        if (history == null) {
+            history = new SeamHistory();
+        }
+    }
+
     public static void main(String[] args) throws IOException {
         EnergyFunction f = new DualGradientEnergyFunction();
-        SeamFinder seamFinder = new AdjacencyListSeamFinder(DijkstraSolver::new);
+        SeamFinder seamFinder = AdjacencyListSeamFinder.withIntSolver(IntDijkstraSolver::new);
         SeamCarver seamCarver = new SeamCarver(new File(INPUT_PATH), f, seamFinder);
         System.out.println(seamCarver.removeVertical());
         seamCarver.picture().save(new File(OUTPUT_PATH));
     }
 
     /**
-     * Checks that the seam is a valid horizontal seam in the picture.
+     * Checks that the seam is a valid seam of the given length.
      *
-     * @param picture the input picture.
-     * @param seam    the seam to remove.
+     * @param length the width of the picture for a horizontal seam, or the height for a vertical seam.
+     * @param seam   the seam to remove.
      */
-    private static void validate(Picture picture, List<Integer> seam) {
+    private static void validate(int length, int[] seam) {
         if (seam == null) {
             throw new NullPointerException("Seam cannot be null");
-        } else if (seam.size() == 1) {
+        } else if (seam.length == 1) {
             throw new IllegalArgumentException("Cannot remove seam of size 1");
-        } else if (seam.size() != picture.width()) {
+        } else if (seam.length != length) {
             throw new IllegalArgumentException("Seam length does not match image size");
         }
-        for (int i = 0; i < seam.size() - 2; i++) {
-            if (Math.abs(seam.get(i) - seam.get(i + 1)) > 1) {
+        for (int i = 0; i < seam.length - 2; i++) {
+            if (Math.abs(seam[i] - seam[i + 1]) > 1) {
                 throw new IllegalArgumentException("Seam values too far from neighbors at index " + i);
             }
         }
     }
 
     /**
-     * Returns a copy of the current picture.
+     * Returns a compacted copy of the current picture. Seams are removed in place from the pixel buffer owned by this
+     * seam carver, so the copy is the only point at which the remaining pixels are reallocated.
      *
-     * @return a copy of the current picture.
+     * @return a compacted copy of the current picture.
      */
-    private Picture picture() {
+    public Picture picture() {
         return new Picture(picture);
     }
 
@@ -98,19 +162,9 @@ public class SeamCarver {
      * @return a minimum-cost horizontal seam.
      */
     public List<Integer> removeHorizontal() {
-        List<Integer> seam = seamFinder.findSeam(picture, f);
-        validate(picture, seam);
-        Picture result = new Picture(picture.width(), picture.height() - 1);
-        for (int x = 0; x < picture.width(); x += 1) {
-            for (int y = 0; y < seam.get(x); y += 1) {
-                result.set(x, y, picture.get(x, y));
-            }
-            for (int y = seam.get(x); y < picture.height() - 1; y += 1) {
-                result.set(x, y, picture.get(x, y + 1));
-            }
-        }
-        picture = result;
-        return seam;
+        int[] seam = seamFinder.findSeamArray(picture, energies);
+        removeHorizontal(seam);
+        return new SeamList(seam);
     }
 
     /**
@@ -119,45 +173,432 @@ public class SeamCarver {
      * @return a minimum-cost vertical seam.
      */
     public List<Integer> removeVertical() {
-        // Transpose the picture by flipping the x/y and width/height access.
-        Picture transposed = new Picture() {
-            @Override
-            public int get(int x, int y) {
-                return picture.image.getRGB(y, x); // (x, y) -> (y, x)
-            }
+        int[] seam = seamFinder.findVerticalSeamArray(picture, energies);
+        removeVertical(seam);
+        return new SeamList(seam);
+    }
 
-            @Override
-            public void set(int x, int y, int rgb) {
-                throw new UnsupportedOperationException("Transposed picture is immutable");
-            }
+    /**
+     * Validates the horizontal seam, records it in the undo log, and removes it from the picture and the energies.
+     *
+     * @param seam the vertical pixel index to remove from each column.
+     */
+    private void removeHorizontal(int[] seam) {
+        validate(picture.width(), seam);
+        if (history != null) {
+            history.record(picture, seam, false);
+        }
+        picture.removeHorizontal(seam);
+        energies.removeHorizontal(seam);
+    }
 
-            @Override
-            public int width() {
-                return picture.image.getHeight();
+    /**
+     * Validates the vertical seam, records it in the undo log, and removes it from the picture and the energies.
+     *
+     * @param seam the horizontal pixel index to remove from each row.
+     */
+    private void removeVertical(int[] seam) {
+        validate(picture.height(), seam);
+        if (history != null) {
+            history.record(picture, seam, true);
+        }
+        picture.removeVertical(seam);
+        energies.removeVertical(seam);
+    }
+
+    /**
+     * Removes and returns {@code k} successive minimum-cost horizontal seams from the picture.
+     *
+     * @param k the number of seams to remove.
+     * @return the removed horizontal seams in the order they were removed.
+     */
+    public List<List<Integer>> removeHorizontal(int k) {
+        return removeHorizontal(k, 1);
+    }
+
+    /**
+     * Removes and returns {@code k} horizontal seams from the picture, extracting up to {@code seamsPerPass} seams from
+     * each DP table instead of recomputing the table after every seam. With one seam per pass every seam has minimum
+     * cost; larger values trade seam quality for speed. The configured {@link SeamFinder} still finds the first seam
+     * of each pass. See {@link DynamicProgrammingSeamFinder#findSeams(Picture, EnergyFunction, int)}.
+     *
+     * @param k            the number of seams to remove.
+     * @param seamsPerPass the maximum number of seams to remove per DP pass.
+     * @return the removed horizontal seams in the order they were removed.
+     */
+    public List<List<Integer>> removeHorizontal(int k, int seamsPerPass) {
+        if (k < 0 || k >= picture.height()) {
+            throw new IllegalArgumentException("Cannot remove " + k + " seams from height " + picture.height());
+        } else if (seamsPerPass <= 0) {
+            throw new IllegalArgumentException("Seams per pass must be positive: " + seamsPerPass);
+        }
+        List<List<Integer>> seams = new ArrayList<>(k);
+        while (seams.size() < k) {
+            if (seamsPerPass == 1) {
+                seams.add(removeHorizontal());
+                continue;
+            }
+            int count = Math.min(seamsPerPass, k - seams.size());
+            for (int[] seam : findSeams(picture, energies, count, false)) {
+                removeHorizontal(seam);
+                seams.add(new SeamList(seam));
             }
+        }
+        return seams;
+    }
+
+    /**
+     * Removes and returns {@code k} successive minimum-cost vertical seams from the picture.
+     *
+     * @param k the number of seams to remove.
+     * @return the removed vertical seams in the order they were removed.
+     */
+    public List<List<Integer>> removeVertical(int k) {
+        return removeVertical(k, 1);
+    }
 
-            @Override
-            public int height() {
-                return picture.image.getWidth();
+    /**
+     * Removes and returns {@code k} vertical seams from the picture, extracting up to {@code seamsPerPass} seams from
+     * each DP table instead of recomputing the table after every seam. With one seam per pass every seam has minimum
+     * cost; larger values trade seam quality for speed. The configured {@link SeamFinder} still finds the first seam
+     * of each pass. See {@link DynamicProgrammingSeamFinder#findVerticalSeams(Picture, EnergyFunction, int)}.
+     *
+     * @param k            the number of seams to remove.
+     * @param seamsPerPass the maximum number of seams to remove per DP pass.
+     * @return the removed vertical seams in the order they were removed.
+     */
+    public List<List<Integer>> removeVertical(int k, int seamsPerPass) {
+        if (k < 0 || k >= picture.width()) {
+            throw new IllegalArgumentException("Cannot remove " + k + " seams from width " + picture.width());
+        } else if (seamsPerPass <= 0) {
+            throw new IllegalArgumentException("Seams per pass must be positive: " + seamsPerPass);
+        }
+        List<List<Integer>> seams = new ArrayList<>(k);
+        while (seams.size() < k) {
+            if (seamsPerPass == 1) {
+                seams.add(removeVertical());
+                continue;
             }
+            int count = Math.min(seamsPerPass, k - seams.size());
+            for (int[] seam : findSeams(picture, energies, count, true)) {
+                removeVertical(seam);
+                seams.add(new SeamList(seam));
+            }
+        }
+        return seams;
+    }
+
+    /**
+     * Inserts the {@code k} most recently removed horizontal seams back into the picture, in reverse order of removal,
+     * without any seam search. The seams must have been removed after any vertical seams still in the undo log.
+     * Requires {@link #enableHistory()}.
+     *
+     * @param k the number of seams to restore.
+     * @return the restored horizontal seams in the order they were restored.
+     * @throws IllegalStateException if the undo log is not enabled.
+     */
+    public List<List<Integer>> restoreHorizontal(int k) {
+        return restore(k, false);
+    }
+
+    /**
+     * Inserts the {@code k} most recently removed vertical seams back into the picture, in reverse order of removal,
+     * without any seam search. The seams must have been removed after any horizontal seams still in the undo log.
+     * Requires {@link #enableHistory()}.
+     *
+     * @param k the number of seams to restore.
+     * @return the restored vertical seams in the order they were restored.
+     * @throws IllegalStateException if the undo log is not enabled.
+     */
+    public List<List<Integer>> restoreVertical(int k) {
+        return restore(k, true);
+    }
 
-            @Override
-            public void save(File file) {
-                throw new UnsupportedOperationException("Transposed picture cannot be saved");
+    /**
+     * Inserts the {@code k} most recently removed seams, which must all have the given orientation, back into the
+     * picture.
+     *
+     * @param k        the number of seams to restore.
+     * @param vertical true to restore vertical seams, false to restore horizontal seams.
+     * @return the restored seams in the order they were restored.
+     */
+    private List<List<Integer>> restore(int k, boolean vertical) {
+        if (history == null) {
+            throw new IllegalStateException("The undo log is not enabled");
+        }
+        int available = history.recent(vertical);
+        if (k < 0 || k > available) {
+            throw new IllegalArgumentException("Cannot restore " + k + (vertical ? " vertical" : " horizontal")
+                    + " seams: only " + available + " were most recently removed");
+        }
+        List<List<Integer>> seams = new ArrayList<>(k);
+        for (int i = 0; i < k; i += 1) {
+            seams.add(new SeamList(history.restore(picture, energies)));
+        }
+        return seams;
+    }
+
+    /**
+     * Enlarges the picture by {@code k} rows by duplicating {@code k} low-energy horizontal seams, as in Avidan and
+     * Shamir's seam insertion. The seams are selected from as few DP tables as possible. See
+     * {@link #insertVertical(int, int)}.
+     *
+     * @param k the number of seams to insert, less than the height.
+     * @return the duplicated seams in the order they were selected, as indices into the picture before insertion.
+     */
+    public List<List<Integer>> insertHorizontal(int k) {
+        return insertHorizontal(k, Math.max(k, 1));
+    }
+
+    /**
+     * Enlarges the picture by {@code k} rows, selecting up to {@code seamsPerPass} seams from each DP table. See
+     * {@link #insertVertical(int, int)}.
+     *
+     * @param k            the number of seams to insert, less than the height.
+     * @param seamsPerPass the maximum number of seams to select per DP pass.
+     * @return the duplicated seams in the order they were selected, as indices into the picture before insertion.
+     */
+    public List<List<Integer>> insertHorizontal(int k, int seamsPerPass) {
+        if (k < 0 || k >= picture.height()) {
+            throw new IllegalArgumentException("Cannot insert " + k + " seams into height " + picture.height());
+        }
+        return insert(k, seamsPerPass, false);
+    }
+
+    /**
+     * Enlarges the picture by {@code k} columns by duplicating {@code k} low-energy vertical seams, as in Avidan and
+     * Shamir's seam insertion. The seams are selected from as few DP tables as possible, which is usually one: finding
+     * every seam with its own DP pass takes minutes on multi-megapixel pictures. Use
+     * {@link #insertVertical(int, int)} with one seam per pass to duplicate exactly the first {@code k} minimum-cost
+     * seams that would be removed instead.
+     *
+     * @param k the number of seams to insert, less than the width.
+     * @return the duplicated seams in the order they were selected, as indices into the picture before insertion.
+     */
+    public List<List<Integer>> insertVertical(int k) {
+        return insertVertical(k, Math.max(k, 1));
+    }
+
+    /**
+     * Enlarges the picture by {@code k} columns. The seams are selected all at once by removing them from a copy of the
+     * picture, since inserting the single cheapest seam over and over would only duplicate the same seam. Each pixel of
+     * a selected seam is then followed by a new pixel averaging it with its right neighbor, writing every row into a
+     * new pixel buffer allocated once for the enlarged picture. Up to {@code seamsPerPass} seams are selected from each
+     * DP table as in {@link #removeVertical(int, int)}, which makes enlarging large pictures much faster. The
+     * configured {@link SeamFinder} still finds the first seam of each pass.
+     * <p>
+     * Since the picture is replaced, the undo log is cleared and previously removed seams can no longer be restored.
+     *
+     * @param k            the number of seams to insert, less than the width.
+     * @param seamsPerPass the maximum number of seams to select per DP pass.
+     * @return the duplicated seams in the order they were selected, as indices into the picture before insertion.
+     * @throws UnsupportedOperationException if the picture is not backed by a pixel buffer.
+     */
+    public List<List<Integer>> insertVertical(int k, int seamsPerPass) {
+        if (k < 0 || k >= picture.width()) {
+            throw new IllegalArgumentException("Cannot insert " + k + " seams into width " + picture.width());
+        }
+        return insert(k, seamsPerPass, true);
+    }
+
+    /**
+     * Selects {@code k} seams on a shrinking copy of the picture, and replaces the picture with an enlarged picture in
+     * which each selected seam is duplicated.
+     *
+     * @param k            the number of seams to insert.
+     * @param seamsPerPass the maximum number of seams to select per DP pass.
+     * @param vertical     true to insert vertical seams, false to insert horizontal seams.
+     * @return the duplicated seams in the order they were selected, as indices into the picture before insertion.
+     */
+    private List<List<Integer>> insert(int k, int seamsPerPass, boolean vertical) {
+        if (seamsPerPass <= 0) {
+            throw new IllegalArgumentException("Seams per pass must be positive: " + seamsPerPass);
+        } else if (picture.pixels == null) {
+            throw new UnsupportedOperationException("Cannot insert seams into a picture without a pixel buffer");
+        }
+        int width = picture.width();
+        int height = picture.height();
+        Picture copy = new Picture(picture);
+        EnergyMap copyEnergies = new EnergyMap(copy, f);
+        // The original index of each remaining pixel of the copy along its line, with the same seams removed.
+        Picture positions = new Picture(width, height);
+        for (int y = 0; y < height; y += 1) {
+            for (int x = 0; x < width; x += 1) {
+                positions.pixels[y * width + x] = vertical ? x : y;
+            }
+        }
+        boolean[] duplicated = new boolean[width * height];
+        List<List<Integer>> seams = new ArrayList<>(k);
+        while (seams.size() < k) {
+            int[][] batch = findSeams(copy, copyEnergies, Math.min(seamsPerPass, k - seams.size()), vertical);
+            // Seams from one pass are in decreasing order, so each is still indexed as in the copy before the pass.
+            for (int[] seam : batch) {
+                validate(vertical ? copy.height() : copy.width(), seam);
+                int[] original = new int[seam.length];
+                for (int i = 0; i < seam.length; i += 1) {
+                    if (vertical) {
+                        original[i] = positions.get(seam[i], i);
+                        duplicated[i * width + original[i]] = true;
+                    } else {
+                        original[i] = positions.get(i, seam[i]);
+                        duplicated[original[i] * width + i] = true;
+                    }
+                }
+                seams.add(new SeamList(original));
             }
-        };
-        List<Integer> seam = seamFinder.findSeam(transposed, f);
-        validate(transposed, seam);
-        Picture result = new Picture(picture.width() - 1, picture.height());
-        for (int y = 0; y < picture.height(); y += 1) {
-            for (int x = 0; x < seam.get(y); x += 1) {
-                result.set(x, y, picture.get(x, y));
+            if (seams.size() == k) {
+                break;
+            } else if (batch.length == 1) {
+                int[] seam = batch[0];
+                if (vertical) {
+                    copy.removeVertical(seam);
+                    copyEnergies.removeVertical(seam);
+                    positions.removeVertical(seam);
+                } else {
+                    copy.removeHorizontal(seam);
+                    copyEnergies.removeHorizontal(seam);
+                    positions.removeHorizontal(seam);
+                }
+            } else {
+                // Removing many seams one at a time moves every pixel once per seam, so rebuild the copy instead.
+                int removed = seams.size();
+                copy = vertical ? new Picture(width - removed, height) : new Picture(width, height - removed);
+                positions = vertical ? new Picture(width - removed, height) : new Picture(width, height - removed);
+                int[] lines = vertical ? null : new int[width];
+                for (int y = 0, out = 0; y < height; y += 1) {
+                    for (int x = 0; x < width; x += 1) {
+                        if (!duplicated[y * width + x]) {
+                            int i = vertical ? out++ : lines[x]++ * width + x;
+                            copy.pixels[i] = picture.pixels[y * picture.stride + x];
+                            positions.pixels[i] = vertical ? x : y;
+                        }
+                    }
+                }
+                copyEnergies = new EnergyMap(copy, f);
             }
-            for (int x = seam.get(y); x < picture.width() - 1; x += 1) {
-                result.set(x, y, picture.get(x + 1, y));
+        }
+
+        Picture result = vertical ? new Picture(width + k, height) : new Picture(width, height + k);
+        // The number of pixels written so far in each column of a horizontally enlarged picture.
+        int[] rows = vertical ? null : new int[width];
+        for (int y = 0, out = 0; y < height; y += 1) {
+            int row = y * picture.stride;
+            for (int x = 0; x < width; x += 1) {
+                int rgb = picture.pixels[row + x];
+                if (vertical) {
+                    result.pixels[out++] = rgb;
+                    if (duplicated[y * width + x]) {
+                        int next = x + 1 < width ? picture.pixels[row + x + 1] : rgb;
+                        result.pixels[out++] = average(rgb, next);
+                    }
+                } else {
+                    result.pixels[rows[x]++ * width + x] = rgb;
+                    if (duplicated[y * width + x]) {
+                        int next = y + 1 < height ? picture.pixels[row + picture.stride + x] : rgb;
+                        result.pixels[rows[x]++ * width + x] = average(rgb, next);
+                    }
+                }
             }
         }
         picture = result;
-        return seam;
+        energies = new EnergyMap(result, f);
+        if (history != null) {
+            history = new SeamHistory();
+        }
+        return seams;
+    }
+
+    /**
+     * Returns the color whose red, green and blue components are each the average of those of the two colors.
+     *
+     * @param a the first 24-bit color.
+     * @param b the second 24-bit color.
+     * @return the average color.
+     */
+    private static int average(int a, int b) {
+        int red = (((a >> 16) & 0xFF) + ((b >> 16) & 0xFF)) / 2;
+        int green = (((a >> 8) & 0xFF) + ((b >> 8) & 0xFF)) / 2;
+        int blue = ((a & 0xFF) + (b & 0xFF)) / 2;
+        // Keep the alpha bits of the first color so that the new pixel matches the pixels read from the same file.
+        return (a & 0xFF000000) | (red << 16) | (green << 8) | blue;
+    }
+
+    /**
+     * Returns the number of removed seams kept in the undo log, which is 0 unless it is enabled.
+     *
+     * @return the number of removed seams kept in the undo log.
+     */
+    public int historySize() {
+        return history == null ? 0 : history.size();
+    }
+
+    /**
+     * Returns the number of bytes allocated for the undo log, which grows with the number of removed pixels.
+     *
+     * @return the number of bytes allocated for the undo log.
+     */
+    public long historyBytes() {
+        return history == null ? 0 : history.bytes();
+    }
+
+    /**
+     * Returns up to {@code count} pairwise non-crossing seams found in one pass over the picture. The configured
+     * {@link SeamFinder} always finds the first seam, and any others are extracted around it from a single
+     * {@link DynamicProgrammingSeamFinder} table: the configured finder's own if it is one, or else a finder created on
+     * first use.
+     *
+     * @param picture  the picture to find seams in.
+     * @param energies the cached energies of the picture.
+     * @param count    the maximum number of seams to find, at least 1.
+     * @param vertical true to find vertical seams, false to find horizontal seams.
+     * @return the seams in decreasing order of their indices, so that removing them in order is always valid.
+     */
+    private int[][] findSeams(Picture picture, EnergyMap energies, int count, boolean vertical) {
+        if (seamFinder instanceof DynamicProgrammingSeamFinder) {
+            // The cheapest seam in the DP table is the one the finder would have returned on its own.
+            return ((DynamicProgrammingSeamFinder) seamFinder).findAll(picture, energies, vertical, count, null);
+        }
+        int[] first = vertical
+                ? seamFinder.findVerticalSeamArray(picture, energies)
+                : seamFinder.findSeamArray(picture, energies);
+        if (count == 1) {
+            return new int[][]{first};
+        } else if (multiSeamFinder == null) {
+            multiSeamFinder = new DynamicProgrammingSeamFinder();
+        }
+        validate(vertical ? picture.height() : picture.width(), first);
+        return multiSeamFinder.findAll(picture, energies, vertical, count, first);
+    }
+
+    /**
+     * Resizes the picture to the given dimensions by removing vertical seams and then horizontal seams. The pixel
+     * buffer, the cached energies and any scratch space kept by the {@link SeamFinder} are reused for every seam.
+     *
+     * @param width  the target width, no larger than the current width.
+     * @param height the target height, no larger than the current height.
+     * @return the removed vertical seams followed by the removed horizontal seams, in the order they were removed.
+     */
+    public List<List<Integer>> resizeTo(int width, int height) {
+        return resizeTo(width, height, 1);
+    }
+
+    /**
+     * Resizes the picture to the given dimensions by removing vertical seams and then horizontal seams, extracting up to
+     * {@code seamsPerPass} seams from each DP table. See {@link #removeVertical(int, int)}.
+     *
+     * @param width        the target width, no larger than the current width.
+     * @param height       the target height, no larger than the current height.
+     * @param seamsPerPass the maximum number of seams to remove per DP pass.
+     * @return the removed vertical seams followed by the removed horizontal seams, in the order they were removed.
+     */
+    public List<List<Integer>> resizeTo(int width, int height, int seamsPerPass) {
+        if (width <= 0 || height <= 0 || width > picture.width() || height > picture.height()) {
+            throw new IllegalArgumentException("Cannot resize " + picture.width() + "x" + picture.height()
+                    + " picture to " + width + "x" + height);
+        }
+        List<List<Integer>> seams = new ArrayList<>(picture.width() - width + picture.height() - height);
+        seams.addAll(removeVertical(picture.width() - width, seamsPerPass));
+        seams.addAll(removeHorizontal(picture.height() - height, seamsPerPass));
+        return seams;
     }
 }
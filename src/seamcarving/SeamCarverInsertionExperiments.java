@@ -0,0 +1,131 @@
+package seamcarving;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Time enlarging pictures by 30% of their width with {@link SeamCarver#insertVertical(int)} and with
+ * {@link SeamCarver#insertVertical(int, int)} for different numbers of seams selected per DP pass.
+ * <p>
+ * Each image is also tiled with mirrored copies of itself to reach about 2000 pixels across at its native level of
+ * detail, since enlarging it by repeating pixels would leave large flat areas that make many low-energy seams easy to
+ * find. To time a real photo instead, pass its path as the first argument.
+ * <p>
+ * The cold time is the first call on a new seam carver and includes computing every energy; the first row printed
+ * also includes warming up the JVM. The warm time is the best of {@link #NUM_TRIALS} further calls.
+ *
+ * @see SeamCarver
+ */
+class SeamCarverInsertionExperiments {
+    /**
+     * The base directory path for the images.
+     */
+    private static final String BASE_PATH = "data/seamcarving/";
+    /**
+     * The image files (.png) in the {@link #BASE_PATH} to enlarge.
+     */
+    private static final String[] FILES = new String[]{
+            "HJoceanSmall",
+            "chameleon"
+    };
+    /**
+     * The number of mirrored copies of each image across and down, with the largest tiling timed first.
+     */
+    private static final int[] TILES = new int[]{4, 1};
+    /**
+     * The maximum number of seams selected per DP pass, where 0 calls the default {@link SeamCarver#insertVertical(int)}.
+     */
+    private static final int[] SEAMS_PER_PASS = new int[]{0, 64, 16, 1};
+    /**
+     * The fraction of the width to insert.
+     */
+    private static final double GROWTH = 0.3;
+    /**
+     * Number of warm trials per configuration. Making this smaller means experiments run faster.
+     */
+    private static final int NUM_TRIALS = 3;
+
+    public static void main(String[] args) throws IOException {
+        EnergyFunction f = new DualGradientEnergyFunction();
+        System.out.printf("%-20s  %12s  %8s  %14s  %10s  %10s%n",
+                "File", "Size", "Inserted", "Seams per pass", "Cold (s)", "Warm (s)");
+        if (args.length > 0) {
+            File file = new File(args[0]);
+            run(f, file.getName(), new Picture(file), false);
+            return;
+        }
+        for (String fileName : FILES) {
+            Picture original = new Picture(new File(BASE_PATH + fileName + ".png"));
+            for (int tiles : TILES) {
+                run(f, fileName + ".png", tile(original, tiles), tiles > 1);
+            }
+        }
+    }
+
+    /**
+     * Times enlarging the picture for each number of seams per pass.
+     *
+     * @param f       the {@link EnergyFunction}.
+     * @param name    the name of the picture to print.
+     * @param picture the picture to enlarge.
+     * @param large   whether to skip selecting one seam per pass, which takes too long on large pictures.
+     */
+    private static void run(EnergyFunction f, String name, Picture picture, boolean large) {
+        int k = (int) (picture.width() * GROWTH);
+        for (int seamsPerPass : SEAMS_PER_PASS) {
+            if (seamsPerPass == 1 && large) {
+                continue; // Hundreds of full-resolution DP passes take too long to be useful here.
+            }
+            double cold = time(f, picture, k, seamsPerPass);
+            double warm = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < NUM_TRIALS; i += 1) {
+                warm = Math.min(warm, time(f, picture, k, seamsPerPass));
+            }
+            System.out.printf("%-20s  %12s  %8d  %14s  %10.3f  %10.3f%n", name,
+                    picture.width() + "x" + picture.height(), k, seamsPerPass == 0 ? "default" : seamsPerPass,
+                    cold, warm);
+        }
+    }
+
+    /**
+     * Returns the time in seconds to enlarge a copy of the picture with a new seam carver.
+     *
+     * @param f            the {@link EnergyFunction}.
+     * @param picture      the picture to enlarge.
+     * @param k            the number of seams to insert.
+     * @param seamsPerPass the maximum number of seams selected per DP pass, or 0 for the default.
+     * @return the time in seconds.
+     */
+    private static double time(EnergyFunction f, Picture picture, int k, int seamsPerPass) {
+        SeamCarver seamCarver = new SeamCarver(new Picture(picture), f, new DynamicProgrammingSeamFinder());
+        long start = System.nanoTime();
+        if (seamsPerPass == 0) {
+            seamCarver.insertVertical(k);
+        } else {
+            seamCarver.insertVertical(k, seamsPerPass);
+        }
+        return (System.nanoTime() - start) / 1e9;
+    }
+
+    /**
+     * Returns a picture made of copies of the given picture, where every other copy is mirrored so that the copies meet
+     * without a hard edge.
+     *
+     * @param picture the picture to tile.
+     * @param tiles   the number of copies across and down.
+     * @return the tiled picture.
+     */
+    private static Picture tile(Picture picture, int tiles) {
+        int width = picture.width();
+        int height = picture.height();
+        Picture result = new Picture(width * tiles, height * tiles);
+        for (int y = 0; y < result.height(); y += 1) {
+            int sy = (y / height) % 2 == 0 ? y % height : height - 1 - y % height;
+            for (int x = 0; x < result.width(); x += 1) {
+                int sx = (x / width) % 2 == 0 ? x % width : width - 1 - x % width;
+                result.set(x, y, picture.get(sx, sy));
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,92 @@
+package seamcarving;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Compare the time and the total energy removed when finding several seams per DP pass with
+ * {@link SeamCarver#removeVertical(int, int)}. The energy of each removed seam is measured against the picture it was
+ * removed from, so lower totals mean the approximate seams stayed closer to the exact ones. The number of seams the
+ * first DP pass actually yields is also reported, since a pass that finds fewer seams than requested needs more passes.
+ *
+ * @see SeamCarver
+ * @see DynamicProgrammingSeamFinder
+ */
+class SeamCarverMultiSeamExperiments {
+    /**
+     * The base directory path for the images.
+     */
+    private static final String BASE_PATH = "data/seamcarving/";
+    /**
+     * The image files (.png) in the {@link #BASE_PATH} to resize.
+     */
+    private static final String[] FILES = new String[]{
+            "chameleon",
+            "HJoceanSmall"
+    };
+    /**
+     * Fraction of the width to remove from each image.
+     */
+    private static final double SCALE = 0.4;
+    /**
+     * Maximum number of seams found per DP pass for each run.
+     */
+    private static final int[] SEAMS_PER_PASS = new int[]{1, 2, 4, 8, 16, 64, 256};
+    /**
+     * Number of trials per image. Making this smaller means experiments run faster.
+     */
+    private static final int NUM_TRIALS = 3;
+
+    public static void main(String[] args) throws IOException {
+        EnergyFunction f = new DualGradientEnergyFunction();
+        DynamicProgrammingSeamFinder finder = new DynamicProgrammingSeamFinder();
+        System.out.printf("%-20s  %8s  %10s  %12s  %15s  %10s%n",
+                "File", "Per pass", "First pass", "Time (s)", "Energy removed", "Increase");
+        for (String fileName : FILES) {
+            Picture picture = new Picture(new File(BASE_PATH + fileName + ".png"));
+            int k = (int) (picture.width() * SCALE);
+            double exact = 0.0;
+            for (int seamsPerPass : SEAMS_PER_PASS) {
+                int yielded = finder.findVerticalSeams(picture, f, Math.min(k, seamsPerPass)).length;
+                double time = 0.0;
+                List<List<Integer>> seams = null;
+                for (int i = 0; i < NUM_TRIALS; i += 1) {
+                    SeamCarver seamCarver = new SeamCarver(new Picture(picture), f,
+                            new DynamicProgrammingSeamFinder());
+                    long start = System.nanoTime();
+                    seams = seamCarver.removeVertical(k, seamsPerPass);
+                    time += (System.nanoTime() - start) / 1e9;
+                }
+                double energy = energyRemoved(new Picture(picture), f, seams);
+                if (seamsPerPass == 1) {
+                    exact = energy;
+                }
+                System.out.printf("%-20s  %8d  %10d  %12.4f  %15.1f  %9.2f%%%n", fileName + ".png", seamsPerPass,
+                        yielded, time / NUM_TRIALS, energy, 100 * (energy - exact) / exact);
+            }
+        }
+    }
+
+    /**
+     * Replays the vertical seams on the picture and returns the total energy of the removed pixels, each measured just
+     * before its seam was removed.
+     *
+     * @param picture the picture to replay the seams on.
+     * @param f       the {@link EnergyFunction}.
+     * @param seams   the vertical seams in the order they were removed.
+     * @return the total energy of the removed pixels.
+     */
+    private static double energyRemoved(Picture picture, EnergyFunction f, List<List<Integer>> seams) {
+        double total = 0.0;
+        for (List<Integer> seam : seams) {
+            int[] indices = new int[seam.size()];
+            for (int y = 0; y < indices.length; y += 1) {
+                indices[y] = seam.get(y);
+                total += f.apply(picture, indices[y], y);
+            }
+            picture.removeVertical(indices);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,79 @@
+package seamcarving;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Compare the time to remove many seams with {@link SeamCarver#resizeTo(int, int)} against removing one seam at a time.
+ *
+ * @see SeamCarver
+ */
+class SeamCarverResizeExperiments {
+    /**
+     * The base directory path for the images.
+     */
+    private static final String BASE_PATH = "data/seamcarving/";
+    /**
+     * The image files (.png) in the {@link #BASE_PATH} to resize.
+     */
+    private static final String[] FILES = new String[]{
+            "chameleon",
+            "HJoceanSmall"
+    };
+    /**
+     * Fraction of the width and height to remove from each image.
+     */
+    private static final double SCALE = 0.2;
+    /**
+     * Number of trials per image. Making this smaller means experiments run faster.
+     */
+    private static final int NUM_TRIALS = 5;
+
+    public static void main(String[] args) throws IOException {
+        EnergyFunction f = new DualGradientEnergyFunction();
+        System.out.printf("%-20s  %15s  %15s  %15s%n", "File", "Rebuilt (s)", "Looped (s)", "resizeTo (s)");
+        for (String fileName : FILES) {
+            Picture picture = new Picture(new File(BASE_PATH + fileName + ".png"));
+            int width = (int) (picture.width() * (1 - SCALE));
+            int height = (int) (picture.height() * (1 - SCALE));
+            double rebuilt = 0.0;
+            double looped = 0.0;
+            double batched = 0.0;
+            for (int i = 0; i < NUM_TRIALS; i += 1) {
+                // Rebuild the picture, energies and DP table for every seam.
+                long start = System.nanoTime();
+                Picture current = new Picture(picture);
+                while (current.width() > width) {
+                    SeamCarver seamCarver = new SeamCarver(current, f, new DynamicProgrammingSeamFinder());
+                    seamCarver.removeVertical();
+                    current = seamCarver.picture();
+                }
+                while (current.height() > height) {
+                    SeamCarver seamCarver = new SeamCarver(current, f, new DynamicProgrammingSeamFinder());
+                    seamCarver.removeHorizontal();
+                    current = seamCarver.picture();
+                }
+                rebuilt += (System.nanoTime() - start) / 1e9;
+
+                // Loop over the single-seam methods of one seam carver.
+                start = System.nanoTime();
+                SeamCarver seamCarver = new SeamCarver(new Picture(picture), f, new DynamicProgrammingSeamFinder());
+                for (int x = picture.width(); x > width; x -= 1) {
+                    seamCarver.removeVertical();
+                }
+                for (int y = picture.height(); y > height; y -= 1) {
+                    seamCarver.removeHorizontal();
+                }
+                looped += (System.nanoTime() - start) / 1e9;
+
+                // Remove all seams in one call.
+                start = System.nanoTime();
+                seamCarver = new SeamCarver(new Picture(picture), f, new DynamicProgrammingSeamFinder());
+                seamCarver.resizeTo(width, height);
+                batched += (System.nanoTime() - start) / 1e9;
+            }
+            System.out.printf("%-20s  %15.4f  %15.4f  %15.4f%n", fileName + ".png",
+                    rebuilt / NUM_TRIALS, looped / NUM_TRIALS, batched / NUM_TRIALS);
+        }
+    }
+}
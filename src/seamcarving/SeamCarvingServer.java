@@ -0,0 +1,440 @@
+package seamcarving;
+
+import graphs.IntDijkstraSolver;
+import graphs.IntToposortDAGSolver;
+import io.javalin.Javalin;
+import io.javalin.http.BadRequestResponse;
+import io.javalin.http.Context;
+import io.javalin.http.HttpCode;
+import io.javalin.http.HttpResponseException;
+import io.javalin.http.ServiceUnavailableResponse;
+import io.javalin.http.UploadedFile;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.util.BlockingArrayQueue;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Embedded HTTP service that resizes uploaded images with {@link SeamCarver}.
+ * <ul>
+ *     <li>{@code POST /carve?width=W&height=H} resizes the image in the request to W by H pixels and responds with a
+ *     PNG. The image is either the multipart file field {@code image} or the raw request body. The target dimensions
+ *     may also be sent as form fields, and default to the dimensions of the image.</li>
+ *     <li>{@code GET /metrics} responds with JSON latency percentiles in milliseconds for each stage of recent
+ *     requests, and counts of completed, rejected and failed requests.</li>
+ * </ul>
+ * Carving runs on a fixed pool of worker threads. At most {@code workers + queue} requests are admitted at once;
+ * requests beyond that are rejected immediately with 503 Service Unavailable instead of waiting, so that a load
+ * balancer can retry them elsewhere. Uploads are decoded on the workers too, after checking the dimensions declared in
+ * the image header, so that a small file declaring a huge picture is rejected with 413 Payload Too Large before any
+ * pixels are allocated. The PNG is encoded directly into the response, which is streamed to the client in chunks
+ * rather than buffered.
+ *
+ * @see SeamCarver
+ * @see BatchCarver
+ */
+public class SeamCarvingServer {
+    /**
+     * The maximum size of an upload, in bytes.
+     */
+    private static final int MAX_REQUEST_SIZE = 64 << 20;
+    /**
+     * The maximum number of pixels in an uploaded image, which bounds the memory used to decode it.
+     */
+    private static final long MAX_PIXELS = 1L << 25;
+    /**
+     * The number of Jetty threads beyond the admitted requests, for the acceptors, the selectors, and rejecting
+     * requests while the service is overloaded.
+     */
+    private static final int SPARE_THREADS = 16;
+    /**
+     * The {@link SeamFinder} implementations that can be chosen on the command line.
+     */
+    private static final Map<String, Supplier<SeamFinder>> SEAM_FINDERS = new LinkedHashMap<>();
+
+    static {
+        SEAM_FINDERS.put("dp", DynamicProgrammingSeamFinder::new);
+        SEAM_FINDERS.put("parallel", ParallelDynamicProgrammingSeamFinder::new);
+        SEAM_FINDERS.put("pyramid", PyramidSeamFinder::new);
+        SEAM_FINDERS.put("strip", StripParallelSeamFinder::new);
+        SEAM_FINDERS.put("dijkstra", () -> AdjacencyListSeamFinder.withIntSolver(IntDijkstraSolver::new));
+        SEAM_FINDERS.put("toposort", () -> GenerativeSeamFinder.withIntSolver(IntToposortDAGSolver::new));
+    }
+
+    /**
+     * The {@link Javalin} app.
+     */
+    private final Javalin app;
+    /**
+     * The worker threads for carving.
+     */
+    private final ExecutorService workers;
+    /**
+     * Permits for the requests being carved or waiting for a worker.
+     */
+    private final Semaphore admitted;
+    /**
+     * The {@link EnergyFunction} for every request.
+     */
+    private final EnergyFunction f;
+    /**
+     * Creates the {@link SeamFinder} for each request, since seam finders may keep buffers between calls.
+     */
+    private final Supplier<SeamFinder> seamFinders;
+    /**
+     * The latencies of recent requests from receiving the image until a worker starts on it.
+     */
+    private final Latencies queue = new Latencies();
+    /**
+     * The latencies of recent requests for decoding the image into a {@link Picture}.
+     */
+    private final Latencies decode = new Latencies();
+    /**
+     * The latencies of recent requests for resizing the {@link Picture} with a {@link SeamCarver}.
+     */
+    private final Latencies carve = new Latencies();
+    /**
+     * The latencies of recent requests for encoding the resized {@link Picture} into the response.
+     */
+    private final Latencies encode = new Latencies();
+    /**
+     * The latencies of recent requests from the start of handling to the end of the response.
+     */
+    private final Latencies total = new Latencies();
+    /**
+     * The number of requests rejected because the service was overloaded.
+     */
+    private final LongAdder rejected = new LongAdder();
+    /**
+     * The number of admitted requests that failed.
+     */
+    private final LongAdder failed = new LongAdder();
+
+    /**
+     * A fixed-size sample of the most recent latencies of one stage.
+     */
+    private static class Latencies {
+        /**
+         * The number of most recent latencies kept.
+         */
+        private static final int SAMPLES = 4096;
+        /**
+         * A ring buffer of the most recent latencies, in nanoseconds.
+         */
+        private final long[] samples = new long[SAMPLES];
+        /**
+         * The total number of latencies recorded.
+         */
+        private long count;
+
+        /**
+         * Records the time elapsed since the given start.
+         *
+         * @param start the {@link System#nanoTime()} when the stage started.
+         * @return the {@link System#nanoTime()} when the stage ended.
+         */
+        long record(long start) {
+            long end = System.nanoTime();
+            synchronized (this) {
+                samples[(int) (count % SAMPLES)] = end - start;
+                count += 1;
+            }
+            return end;
+        }
+
+        /**
+         * Returns the count and the 50th, 90th, 99th and 100th percentile latencies, in milliseconds, of the most
+         * recent requests.
+         *
+         * @return the count and percentile latencies of the most recent requests.
+         */
+        Map<String, Object> summary() {
+            long[] sorted;
+            long n;
+            synchronized (this) {
+                n = count;
+                sorted = Arrays.copyOf(samples, (int) Math.min(count, SAMPLES));
+            }
+            Arrays.sort(sorted);
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("count", n);
+            result.put("p50", percentile(sorted, 0.50));
+            result.put("p90", percentile(sorted, 0.90));
+            result.put("p99", percentile(sorted, 0.99));
+            result.put("max", percentile(sorted, 1.0));
+            return result;
+        }
+
+        /**
+         * Returns the given nearest-rank percentile of the sorted latencies in milliseconds, or 0 if there are none.
+         *
+         * @param sorted   the latencies in ascending order, in nanoseconds.
+         * @param fraction the percentile as a fraction between 0 and 1.
+         * @return the percentile in milliseconds.
+         */
+        private static double percentile(long[] sorted, double fraction) {
+            if (sorted.length == 0) {
+                return 0.0;
+            }
+            int rank = (int) Math.ceil(fraction * sorted.length);
+            return sorted[Math.max(0, rank - 1)] / 1e6;
+        }
+    }
+
+    /**
+     * Constructs a server that carves with the given {@link EnergyFunction} and {@link SeamFinder} on the given number
+     * of worker threads, admitting up to {@code queue} further requests to wait for a worker.
+     *
+     * @param f           the {@link EnergyFunction} for every request.
+     * @param seamFinders creates the {@link SeamFinder} for each request.
+     * @param workers     the number of worker threads for carving.
+     * @param queue       the number of requests that may wait for a worker before requests are rejected.
+     */
+    public SeamCarvingServer(EnergyFunction f, Supplier<SeamFinder> seamFinders, int workers, int queue) {
+        if (f == null || seamFinders == null) {
+            throw new IllegalArgumentException("Arguments cannot be null");
+        } else if (workers <= 0 || queue < 0) {
+            throw new IllegalArgumentException("Invalid workers " + workers + " and queue " + queue);
+        }
+        this.f = f;
+        this.seamFinders = seamFinders;
+        this.admitted = new Semaphore(workers + queue);
+        AtomicInteger count = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "carve-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Bound the Jetty threads and their queue too, so that connections beyond them wait in the accept backlog.
+        int threads = workers + queue + SPARE_THREADS;
+        QueuedThreadPool pool = new QueuedThreadPool(threads, Math.min(threads, 8), 60_000,
+                new BlockingArrayQueue<>(threads, threads, threads));
+        pool.setName("http");
+        this.app = Javalin.create(config -> {
+            config.server(() -> new Server(pool));
+            config.maxRequestSize = (long) MAX_REQUEST_SIZE;
+            config.showJavalinBanner = false;
+        });
+        app.post("/carve", this::carve);
+        app.get("/metrics", ctx -> ctx.json(metrics()));
+    }
+
+    public static void main(String[] args) {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 7000;
+        int workers = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int queue = args.length > 2 ? Integer.parseInt(args[2]) : 2 * workers;
+        String finder = args.length > 3 ? args[3] : "dp";
+        if (!SEAM_FINDERS.containsKey(finder)) {
+            System.err.println("Usage: SeamCarvingServer [port] [workers] [queue] " + SEAM_FINDERS.keySet());
+            return;
+        }
+        new SeamCarvingServer(new DualGradientEnergyFunction(), SEAM_FINDERS.get(finder), workers, queue).start(port);
+        System.out.println("Carving with " + finder + " on " + workers + " workers at http://localhost:" + port);
+    }
+
+    /**
+     * Starts the server on the given port, or on a free port if 0.
+     *
+     * @param port the port to listen on.
+     * @return the port the server is listening on.
+     */
+    public int start(int port) {
+        app.start(port);
+        return app.port();
+    }
+
+    /**
+     * Stops the server and its worker threads.
+     */
+    public void stop() {
+        app.stop();
+        workers.shutdown();
+    }
+
+    /**
+     * Returns the latency percentiles of each stage and the request counts.
+     *
+     * @return the latency percentiles of each stage and the request counts.
+     */
+    public Map<String, Object> metrics() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("queue", queue.summary());
+        result.put("decode", decode.summary());
+        result.put("carve", carve.summary());
+        result.put("encode", encode.summary());
+        result.put("total", total.summary());
+        result.put("rejected", rejected.sum());
+        result.put("failed", failed.sum());
+        result.put("available", admitted.availablePermits());
+        return result;
+    }
+
+    /**
+     * Handles a request to carve an image.
+     *
+     * @param ctx the request and response.
+     * @throws Exception if the request cannot be carved.
+     */
+    private void carve(Context ctx) throws Exception {
+        long start = System.nanoTime();
+        if (!admitted.tryAcquire()) {
+            rejected.increment();
+            ctx.header("Retry-After", "1");
+            throw new ServiceUnavailableResponse("Too many requests in progress");
+        }
+        boolean succeeded = false;
+        try {
+            byte[] image;
+            UploadedFile upload = ctx.isMultipart() ? ctx.uploadedFile("image") : null;
+            try (InputStream input = upload != null ? upload.getContent() : ctx.req.getInputStream()) {
+                image = read(input);
+            } catch (IOException e) {
+                throw new BadRequestResponse(e.getMessage());
+            }
+            String widthParam = param(ctx, "width");
+            String heightParam = param(ctx, "height");
+            long received = System.nanoTime();
+
+            Future<Picture> result = workers.submit(() -> {
+                long decoding = queue.record(received);
+                Picture picture = decode(image);
+                long carving = decode.record(decoding);
+                int width = dimension("width", widthParam, picture.width());
+                int height = dimension("height", heightParam, picture.height());
+                new SeamCarver(picture, f, seamFinders.get()).resizeTo(width, height);
+                carve.record(carving);
+                return picture;
+            });
+            Picture picture;
+            try {
+                picture = result.get();
+            } catch (InterruptedException e) {
+                result.cancel(true);
+                throw e;
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof HttpResponseException) {
+                    throw (HttpResponseException) e.getCause();
+                } else if (e.getCause() instanceof IllegalArgumentException) {
+                    throw new BadRequestResponse(e.getCause().getMessage());
+                }
+                throw e;
+            }
+
+            long encoding = System.nanoTime();
+            ctx.status(200);
+            ctx.contentType("image/png");
+            // The picture was carved in place, so encode it straight into the chunked response.
+            picture.save(ctx.res.getOutputStream());
+            ctx.res.flushBuffer();
+            encode.record(encoding);
+            total.record(start);
+            succeeded = true;
+        } finally {
+            admitted.release();
+            if (!succeeded) {
+                failed.increment();
+            }
+        }
+    }
+
+    /**
+     * Reads the uploaded image, which must be no larger than {@link #MAX_REQUEST_SIZE} bytes.
+     *
+     * @param input the upload.
+     * @return the bytes of the image.
+     * @throws IOException if an error occurs during reading.
+     */
+    private static byte[] read(InputStream input) throws IOException {
+        byte[] bytes = input.readNBytes(MAX_REQUEST_SIZE + 1);
+        if (bytes.length > MAX_REQUEST_SIZE) {
+            throw new HttpResponseException(HttpCode.PAYLOAD_TOO_LARGE.getStatus(),
+                    "The image must be at most " + MAX_REQUEST_SIZE + " bytes");
+        }
+        return bytes;
+    }
+
+    /**
+     * Decodes the image after checking that the dimensions in its header are within {@link #MAX_PIXELS}.
+     *
+     * @param image the bytes of the image.
+     * @return the decoded picture.
+     */
+    private static Picture decode(byte[] image) {
+        try (ImageInputStream stream = ImageIO.createImageInputStream(new ByteArrayInputStream(image))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(stream);
+            if (!readers.hasNext()) {
+                throw new BadRequestResponse("Unsupported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(stream, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > MAX_PIXELS) {
+                    throw new HttpResponseException(HttpCode.PAYLOAD_TOO_LARGE.getStatus(), "The image must have at most "
+                            + MAX_PIXELS + " pixels: " + reader.getWidth(0) + "x" + reader.getHeight(0));
+                }
+            } finally {
+                reader.dispose();
+            }
+            return new Picture(new ByteArrayInputStream(image));
+        } catch (IOException e) {
+            throw new BadRequestResponse(e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the query or form parameter with the given name, or null if absent.
+     *
+     * @param ctx  the request.
+     * @param name the name of the parameter.
+     * @return the value of the parameter, or null if absent.
+     */
+    private static String param(Context ctx, String name) {
+        String value = ctx.queryParam(name);
+        if (value == null && ctx.isMultipart()) {
+            value = ctx.formParam(name);
+        }
+        return value;
+    }
+
+    /**
+     * Returns the target dimension from the value of the parameter with the given name, or the default if absent.
+     *
+     * @param name    the name of the parameter.
+     * @param value   the value of the parameter, or null if absent.
+     * @param current the current dimension of the picture, which is the default and the maximum.
+     * @return the target dimension.
+     */
+    private static int dimension(String name, String value, int current) {
+        if (value == null) {
+            return current;
+        }
+        try {
+            int result = Integer.parseInt(value.strip());
+            if (result <= 0 || result > current) {
+                throw new BadRequestResponse("The " + name + " must be between 1 and " + current + ": " + result);
+            }
+            return result;
+        } catch (NumberFormatException e) {
+            throw new BadRequestResponse("The " + name + " must be an integer: " + value);
+        }
+    }
+}
@@ -4,7 +4,11 @@ import java.util.List;
 
 /**
  * Finds a horizontal seam through the {@link Picture} with the lowest sum of {@link EnergyFunction} costs. A horizontal
- * seam is defined as a path of adjacent or diagonally-adjacent pixels from the left to right edges of an image.
+ * seam is defined as a path of adjacent or diagonally-adjacent pixels from the left to right edges of an image. Vertical
+ * seams are found with {@link #findVerticalSeam(Picture, EnergyFunction)}.
+ * <p>
+ * Implementations compute seams into {@code int[]} arrays with {@link #findSeamArray(Picture, EnergyFunction)}, and the
+ * {@link List} methods are thin views over those arrays, so callers that remove many seams can avoid boxing.
  *
  * @see AdjacencyListSeamFinder
  * @see GenerativeSeamFinder
@@ -23,5 +27,45 @@ public interface SeamFinder {
      * @param f       the {@link EnergyFunction}.
      * @return a {@link List} of integers representing the vertical pixels to remove.
      */
-    List<Integer> findSeam(Picture picture, EnergyFunction f);
+    default List<Integer> findSeam(Picture picture, EnergyFunction f) {
+        return new SeamList(findSeamArray(picture, f));
+    }
+
+    /**
+     * Returns a minimum-energy horizontal seam in the current image as an array of the vertical pixel index to remove
+     * from each column in the width of the horizontal seam.
+     *
+     * @param picture the {@link Picture}.
+     * @param f       the {@link EnergyFunction}.
+     * @return an array of the vertical pixels to remove.
+     */
+    int[] findSeamArray(Picture picture, EnergyFunction f);
+
+    /**
+     * Returns a minimum-energy vertical seam in the current image as a {@link List} of integers representing the
+     * horizontal pixel index to remove from each row in the height of the vertical seam. A vertical seam is a path of
+     * adjacent or diagonally-adjacent pixels from the top to bottom edges of an image.
+     *
+     * @param picture the {@link Picture}.
+     * @param f       the {@link EnergyFunction}.
+     * @return a {@link List} of integers representing the horizontal pixels to remove.
+     */
+    default List<Integer> findVerticalSeam(Picture picture, EnergyFunction f) {
+        return new SeamList(findVerticalSeamArray(picture, f));
+    }
+
+    /**
+     * Returns a minimum-energy vertical seam in the current image as an array of the horizontal pixel index to remove
+     * from each row in the height of the vertical seam.
+     * <p>
+     * By default, finds a horizontal seam in a transposed view of the picture. Implementations that can walk the
+     * picture in row-major order should override this method to avoid the column-major access of the transposed view.
+     *
+     * @param picture the {@link Picture}.
+     * @param f       the {@link EnergyFunction}.
+     * @return an array of the horizontal pixels to remove.
+     */
+    default int[] findVerticalSeamArray(Picture picture, EnergyFunction f) {
+        return findSeamArray(new TransposedPicture(picture), (transposed, x, y) -> f.apply(picture, y, x));
+    }
 }
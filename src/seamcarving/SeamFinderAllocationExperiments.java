@@ -0,0 +1,73 @@
+package seamcarving;
+
+import graphs.IntDijkstraSolver;
+import graphs.IntToposortDAGSolver;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Measure the heap allocation of repeated {@link SeamFinder} calls on the same thread. After warming up, no finder
+ * should allocate any more {@link Workspace} arrays. The dynamic programming finders should only allocate the returned
+ * seam, while the graph finders also allocate a solver and its priority queue or traversal order objects per call,
+ * since the {@code graphs} solvers borrow their arrays from the workspace through a {@link SolverScratch}. The parallel
+ * finders also allocate their fork/join tasks, and the pyramid finder the views of its downscaled levels.
+ *
+ * @see Workspace
+ */
+class SeamFinderAllocationExperiments {
+    /**
+     * The width and height of the random pictures.
+     */
+    private static final int SIZE = 500;
+    /**
+     * Number of calls before measuring, so that the workspace arrays have grown to size.
+     */
+    private static final int NUM_WARMUP = 20;
+    /**
+     * Number of measured calls per implementation. Making this smaller means experiments run faster.
+     */
+    private static final int NUM_TRIALS = 50;
+
+    public static void main(String[] args) {
+        Map<String, SeamFinder> implementations = new LinkedHashMap<>();
+        implementations.put("AdjDijkstra", AdjacencyListSeamFinder.withIntSolver(IntDijkstraSolver::new));
+        implementations.put("AdjToposort", AdjacencyListSeamFinder.withIntSolver(IntToposortDAGSolver::new));
+        implementations.put("GenDijkstra", GenerativeSeamFinder.withIntSolver(IntDijkstraSolver::new));
+        implementations.put("GenToposort", GenerativeSeamFinder.withIntSolver(IntToposortDAGSolver::new));
+        implementations.put("DynamicProgramming", new DynamicProgrammingSeamFinder());
+        implementations.put("IntDynamicProgramming", new IntDynamicProgrammingSeamFinder());
+        implementations.put("ParallelDP", new ParallelDynamicProgrammingSeamFinder());
+        implementations.put("StreamingDP", new StreamingDynamicProgrammingSeamFinder());
+        implementations.put("StripParallel", new StripParallelSeamFinder());
+        implementations.put("Pyramid", new PyramidSeamFinder());
+        implementations.put("Temporal", new TemporalSeamFinder());
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        Picture picture = Picture.random(SIZE, SIZE);
+        // Cache the energies as a seam carver would, so the measurements only include the finders.
+        EnergyFunction f = new EnergyMap(picture, new DualGradientEnergyFunction());
+
+        System.out.printf("%-22s  %15s  %15s  %15s%n", "Implementation", "Bytes/call", "Seam bytes", "Arrays grown");
+        for (Map.Entry<String, SeamFinder> entry : implementations.entrySet()) {
+            SeamFinder seamFinder = entry.getValue();
+            for (int i = 0; i < NUM_WARMUP; i += 1) {
+                seamFinder.findSeamArray(picture, f);
+                seamFinder.findVerticalSeamArray(picture, f);
+            }
+            long arrays = Workspace.allocations();
+            long bytes = threads.getThreadAllocatedBytes(thread);
+            for (int i = 0; i < NUM_TRIALS; i += 1) {
+                seamFinder.findSeamArray(picture, f);
+                seamFinder.findVerticalSeamArray(picture, f);
+            }
+            bytes = threads.getThreadAllocatedBytes(thread) - bytes;
+            arrays = Workspace.allocations() - arrays;
+            // Each call returns an int[] of SIZE elements with a 16-byte header.
+            System.out.printf("%-22s  %15d  %15d  %15d%n", entry.getKey(),
+                    bytes / (2 * NUM_TRIALS), 16 + 4 * SIZE, arrays);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package seamcarving;
 
 import graphs.DijkstraSolver;
+import graphs.IntDijkstraSolver;
+import graphs.IntToposortDAGSolver;
 import graphs.ToposortDAGSolver;
 
 import java.io.File;
@@ -36,7 +38,12 @@ class SeamFinderInputSizeExperiments {
                 "AdjToposort", new AdjacencyListSeamFinder(ToposortDAGSolver::new),
                 "GenDijkstra", new GenerativeSeamFinder(DijkstraSolver::new),
                 "GenToposort", new GenerativeSeamFinder(ToposortDAGSolver::new),
-                "DynamicProgramming", new DynamicProgrammingSeamFinder()
+                "AdjIntDijkstra", AdjacencyListSeamFinder.withIntSolver(IntDijkstraSolver::new),
+                "AdjIntToposort", AdjacencyListSeamFinder.withIntSolver(IntToposortDAGSolver::new),
+                "GenIntDijkstra", GenerativeSeamFinder.withIntSolver(IntDijkstraSolver::new),
+                "GenIntToposort", GenerativeSeamFinder.withIntSolver(IntToposortDAGSolver::new),
+                "DynamicProgramming", new DynamicProgrammingSeamFinder(),
+                "ParallelDynamicProgramming", new ParallelDynamicProgrammingSeamFinder()
         );
         EnergyFunction f = new DualGradientEnergyFunction();
 
@@ -46,7 +53,12 @@ class SeamFinderInputSizeExperiments {
                 "AdjToposort", new PrintStream(TEST + "/AdjToposort.csv"),
                 "GenDijkstra", new PrintStream(TEST + "/GenDijkstra.csv"),
                 "GenToposort", new PrintStream(TEST + "/GenToposort.csv"),
-                "DynamicProgramming", new PrintStream(TEST + "/DynamicProgramming.csv")
+                "AdjIntDijkstra", new PrintStream(TEST + "/AdjIntDijkstra.csv"),
+                "AdjIntToposort", new PrintStream(TEST + "/AdjIntToposort.csv"),
+                "GenIntDijkstra", new PrintStream(TEST + "/GenIntDijkstra.csv"),
+                "GenIntToposort", new PrintStream(TEST + "/GenIntToposort.csv"),
+                "DynamicProgramming", new PrintStream(TEST + "/DynamicProgramming.csv"),
+                "ParallelDynamicProgramming", new PrintStream(TEST + "/ParallelDynamicProgramming.csv")
         );
         for (int N = INPUT_STEP_SIZE; N <= MAX_INPUT_SIZE; N += INPUT_STEP_SIZE) {
             System.out.println("N = " + N);
@@ -1,6 +1,8 @@
 package seamcarving;
 
 import graphs.DijkstraSolver;
+import graphs.IntDijkstraSolver;
+import graphs.IntToposortDAGSolver;
 import graphs.ToposortDAGSolver;
 
 import java.io.File;
@@ -8,17 +10,26 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.List;
 import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
 
 /**
- * Compare different {@link SeamFinder} implementations to check that they compute the same values.
+ * Compare different {@link SeamFinder} implementations to check that they compute the same values. Approximate
+ * implementations are instead checked for valid seams that cost no less than the minimum.
  *
  * @see SeamFinder
  * @see AdjacencyListSeamFinder
  * @see GenerativeSeamFinder
  * @see DynamicProgrammingSeamFinder
+ * @see ParallelDynamicProgrammingSeamFinder
+ * @see StreamingDynamicProgrammingSeamFinder
+ * @see StripParallelSeamFinder
+ * @see IntDynamicProgrammingSeamFinder
  * @see graphs.ShortestPathSolver
  * @see DijkstraSolver
  * @see ToposortDAGSolver
+ * @see graphs.IntShortestPathSolver
+ * @see IntDijkstraSolver
+ * @see IntToposortDAGSolver
  */
 class SeamFinderMultiTest {
     /**
@@ -66,8 +77,48 @@ class SeamFinderMultiTest {
         test(new AdjacencyListSeamFinder(ToposortDAGSolver::new));
         System.out.println("\n=============================================");
 
+        System.out.println("Testing Generative Toposort DAG Solver");
+        test(new GenerativeSeamFinder(ToposortDAGSolver::new));
+        System.out.println("\n=============================================");
+
+        System.out.println("Testing Int Dijkstra Solver");
+        test(AdjacencyListSeamFinder.withIntSolver(IntDijkstraSolver::new));
+        System.out.println("\n=============================================");
+
+        System.out.println("Testing Generative Int Dijkstra Solver");
+        test(GenerativeSeamFinder.withIntSolver(IntDijkstraSolver::new));
+        System.out.println("\n=============================================");
+
+        System.out.println("Testing Int Toposort DAG Solver");
+        test(AdjacencyListSeamFinder.withIntSolver(IntToposortDAGSolver::new));
+        System.out.println("\n=============================================");
+
+        System.out.println("Testing Generative Int Toposort DAG Solver");
+        test(GenerativeSeamFinder.withIntSolver(IntToposortDAGSolver::new));
+        System.out.println("\n=============================================");
+
         System.out.println("Testing Dynamic Programming Seam Finder");
         test(new DynamicProgrammingSeamFinder());
+        System.out.println("\n=============================================");
+
+        System.out.println("Testing Parallel Dynamic Programming Seam Finder");
+        test(new ParallelDynamicProgrammingSeamFinder());
+        System.out.println("\n=============================================");
+
+        System.out.println("Testing Streaming Dynamic Programming Seam Finder");
+        test(new StreamingDynamicProgrammingSeamFinder());
+        System.out.println("\n=============================================");
+
+        System.out.println("Testing Strip Parallel Seam Finder");
+        test(new StripParallelSeamFinder());
+        System.out.println("\n=============================================");
+
+        System.out.println("Testing Strip Parallel Seam Finder with Tiny Strips");
+        testApproximate(new StripParallelSeamFinder(ForkJoinPool.commonPool(), 4, 2));
+        System.out.println("\n=============================================");
+
+        System.out.println("Testing Integer Dynamic Programming Seam Finder");
+        test(new IntDynamicProgrammingSeamFinder());
     }
 
     /**
@@ -110,6 +161,68 @@ class SeamFinderMultiTest {
         }
     }
 
+    /**
+     * Tests the given approximate {@link SeamFinder} implementation, which passes if its seams are valid and cost no
+     * less than the minimum-cost seams. The gap between the cost of each seam and the minimum cost is also printed.
+     *
+     * @param seamFinder the approximate {@link SeamFinder} implementation.
+     * @throws IOException if an error occurs during reading.
+     */
+    private static void testApproximate(SeamFinder seamFinder) throws IOException {
+        EnergyFunction f = new DualGradientEnergyFunction();
+        System.out.printf("%-30.30s  %-30.30s  %-30.30s%n", "File", "Vertical Passed (Gap)", "Horizontal Passed (Gap)");
+
+        for (String fileName : FILES) {
+            Picture picture = new Picture(new File(BASE_PATH + fileName + ".png"));
+
+            List<Integer> horzSeam = seamFinder.findSeam(picture, f);
+            double horzExpectedEnergy = getExpectedSeamEnergy(fileName, false);
+            boolean horzValid = isValidSeam(horzSeam, picture.width(), picture.height());
+            double horzGap = horzValid ? getSeamEnergy(picture, horzSeam, false) - horzExpectedEnergy : Double.NaN;
+            boolean horzPassed = horzValid && horzGap > -EPSILON;
+
+            List<Integer> vertSeam = seamFinder.findVerticalSeam(picture, f);
+            double vertExpectedEnergy = getExpectedSeamEnergy(fileName, true);
+            boolean vertValid = isValidSeam(vertSeam, picture.height(), picture.width());
+            double vertGap = vertValid ? getSeamEnergy(picture, vertSeam, true) - vertExpectedEnergy : Double.NaN;
+            boolean vertPassed = vertValid && vertGap > -EPSILON;
+
+            System.out.printf(
+                    "%-30.30s  %-30.30s  %-30.30s%n",
+                    fileName + ".png",
+                    String.format("%s (%.2f)", vertPassed ? "PASS" : "FAIL", vertGap),
+                    String.format("%s (%.2f)", horzPassed ? "PASS" : "FAIL", horzGap)
+            );
+            if (!vertPassed) {
+                printFail(vertExpectedEnergy, vertSeam.toString(), vertExpectedEnergy + vertGap, true);
+            }
+            if (!horzPassed) {
+                printFail(horzExpectedEnergy, horzSeam.toString(), horzExpectedEnergy + horzGap, false);
+            }
+        }
+    }
+
+    /**
+     * Returns true if the seam has one cell per line, every cell is within the line, and consecutive cells differ by
+     * at most one.
+     *
+     * @param seam   the computed seam.
+     * @param lines  the number of lines the seam crosses.
+     * @param length the number of cells in each line.
+     * @return true if the seam is valid.
+     */
+    private static boolean isValidSeam(List<Integer> seam, int lines, int length) {
+        if (seam.size() != lines) {
+            return false;
+        }
+        for (int i = 0; i < lines; i++) {
+            if (seam.get(i) < 0 || seam.get(i) >= length || i > 0 && Math.abs(seam.get(i) - seam.get(i - 1)) > 1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Prints information about a failed {@link SeamFinder} test case.
      *
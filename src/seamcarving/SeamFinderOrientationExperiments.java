@@ -0,0 +1,62 @@
+package seamcarving;
+
+import java.util.List;
+
+/**
+ * Compare the time to find vertical seams natively with {@link SeamFinder#findVerticalSeam(Picture, EnergyFunction)}
+ * against finding horizontal seams in a {@link TransposedPicture} view, on pictures that are wider than they are tall.
+ *
+ * @see DynamicProgrammingSeamFinder
+ * @see TransposedPicture
+ */
+class SeamFinderOrientationExperiments {
+    /**
+     * Height of every picture in pixels.
+     */
+    private static final int HEIGHT = 500;
+    /**
+     * Maximum picture width in pixels. Making this smaller means experiments run faster.
+     */
+    private static final int MAX_WIDTH = 8000;
+    /**
+     * Width step size increment. Making this smaller means experiments run slower.
+     */
+    private static final int WIDTH_STEP_SIZE = 1000;
+    /**
+     * Number of trials per picture. Making this smaller means experiments run faster.
+     */
+    private static final int NUM_TRIALS = 10;
+
+    public static void main(String[] args) {
+        SeamFinder seamFinder = new DynamicProgrammingSeamFinder();
+        EnergyFunction f = new DualGradientEnergyFunction();
+        System.out.printf("%-12s  %15s  %15s  %15s%n", "Size", "Horizontal (s)", "Transposed (s)", "Vertical (s)");
+        for (int N = WIDTH_STEP_SIZE; N <= MAX_WIDTH; N += WIDTH_STEP_SIZE) {
+            Picture picture = Picture.random(N, HEIGHT);
+            Picture transposed = new TransposedPicture(picture);
+            EnergyFunction transposedF = (p, x, y) -> f.apply(picture, y, x);
+            double horizontal = 0.0;
+            double before = 0.0;
+            double after = 0.0;
+            for (int i = 0; i < NUM_TRIALS; i += 1) {
+                long start = System.nanoTime();
+                seamFinder.findSeam(picture, f);
+                horizontal += (System.nanoTime() - start) / 1e9;
+
+                start = System.nanoTime();
+                List<Integer> expected = seamFinder.findSeam(transposed, transposedF);
+                before += (System.nanoTime() - start) / 1e9;
+
+                start = System.nanoTime();
+                List<Integer> actual = seamFinder.findVerticalSeam(picture, f);
+                after += (System.nanoTime() - start) / 1e9;
+
+                if (!expected.equals(actual)) {
+                    throw new IllegalStateException("Vertical seams differ for " + N + "x" + HEIGHT);
+                }
+            }
+            System.out.printf("%-12s  %15.6f  %15.6f  %15.6f%n", N + "x" + HEIGHT,
+                    horizontal / NUM_TRIALS, before / NUM_TRIALS, after / NUM_TRIALS);
+        }
+    }
+}
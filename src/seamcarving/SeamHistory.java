@@ -0,0 +1,126 @@
+package seamcarving;
+
+import java.util.Arrays;
+
+/**
+ * Undo log of the seams removed from a {@link Picture}, so that they can be inserted again in reverse order without
+ * any seam search. Each seam is stored compactly as its first index and a one-byte step (-1, 0, or +1) for each
+ * following line, together with the colors of the pixels it removed. All entries share a few growable primitive
+ * buffers, so recording a seam allocates nothing once the buffers are large enough.
+ *
+ * @see SeamCarver#restoreVertical(int)
+ * @see SeamCarver#restoreHorizontal(int)
+ */
+class SeamHistory {
+    /**
+     * The orientation of each seam: true for vertical seams, false for horizontal seams.
+     */
+    private boolean[] vertical = new boolean[16];
+    /**
+     * The first index of each seam.
+     */
+    private int[] starts = new int[16];
+    /**
+     * The offset of each seam's steps and colors in {@link #steps} and {@link #colors}.
+     */
+    private int[] offsets = new int[17];
+    /**
+     * The difference between consecutive indices of each seam, concatenated.
+     */
+    private byte[] steps = new byte[0];
+    /**
+     * The colors of the pixels removed by each seam, concatenated.
+     */
+    private int[] colors = new int[0];
+    /**
+     * The number of seams in the log.
+     */
+    private int size;
+
+    /**
+     * Records the seam, reading the colors of its pixels from the picture. Must be called before the seam is removed.
+     *
+     * @param picture    the picture that the seam will be removed from.
+     * @param seam       the pixel index to remove from each line.
+     * @param isVertical true for a vertical seam, false for a horizontal seam.
+     */
+    void record(Picture picture, int[] seam, boolean isVertical) {
+        if (size == starts.length) {
+            vertical = Arrays.copyOf(vertical, 2 * size);
+            starts = Arrays.copyOf(starts, 2 * size);
+            offsets = Arrays.copyOf(offsets, 2 * size + 1);
+        }
+        int offset = offsets[size];
+        int end = offset + seam.length;
+        if (end > colors.length) {
+            int capacity = Math.max(end, 2 * colors.length);
+            steps = Arrays.copyOf(steps, capacity);
+            colors = Arrays.copyOf(colors, capacity);
+        }
+        for (int i = 0; i < seam.length; i += 1) {
+            steps[offset + i] = (byte) (i == 0 ? 0 : seam[i] - seam[i - 1]);
+            colors[offset + i] = isVertical ? picture.get(seam[i], i) : picture.get(i, seam[i]);
+        }
+        vertical[size] = isVertical;
+        starts[size] = seam[0];
+        offsets[size + 1] = end;
+        size += 1;
+    }
+
+    /**
+     * Returns the number of seams in the log.
+     *
+     * @return the number of seams in the log.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of most recent seams in the log that have the given orientation.
+     *
+     * @param isVertical true to count vertical seams, false to count horizontal seams.
+     * @return the number of most recent seams with the given orientation.
+     */
+    int recent(boolean isVertical) {
+        int count = 0;
+        while (count < size && vertical[size - 1 - count] == isVertical) {
+            count += 1;
+        }
+        return count;
+    }
+
+    /**
+     * Removes the most recent seam from the log and inserts it back into the picture and the energy map.
+     *
+     * @param picture  the picture that the seam was removed from.
+     * @param energies the energy map of the picture.
+     * @return the inserted seam.
+     */
+    int[] restore(Picture picture, EnergyMap energies) {
+        size -= 1;
+        int offset = offsets[size];
+        int[] seam = new int[offsets[size + 1] - offset];
+        seam[0] = starts[size];
+        for (int i = 1; i < seam.length; i += 1) {
+            seam[i] = seam[i - 1] + steps[offset + i];
+        }
+        if (vertical[size]) {
+            picture.insertVertical(seam, colors, offset);
+            energies.insertVertical(seam);
+        } else {
+            picture.insertHorizontal(seam, colors, offset);
+            energies.insertHorizontal(seam);
+        }
+        return seam;
+    }
+
+    /**
+     * Returns the number of bytes allocated for the log.
+     *
+     * @return the number of bytes allocated for the log.
+     */
+    long bytes() {
+        return vertical.length + 4L * starts.length + 4L * offsets.length + steps.length + 4L * colors.length;
+    }
+}
@@ -0,0 +1,37 @@
+package seamcarving;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * Read-only {@link java.util.List} view of a seam stored as an {@code int[]}, so that finders can compute seams into
+ * primitive arrays while still returning a {@code List<Integer>} from {@link SeamFinder#findSeam(Picture,
+ * EnergyFunction)}. Indices are only boxed when they are read through the view.
+ *
+ * @see SeamFinder#findSeamArray(Picture, EnergyFunction)
+ */
+class SeamList extends AbstractList<Integer> implements RandomAccess {
+    /**
+     * The pixel index to remove from each line of the seam.
+     */
+    private final int[] seam;
+
+    /**
+     * Constructs a view of the given seam.
+     *
+     * @param seam the pixel index to remove from each line of the seam.
+     */
+    SeamList(int[] seam) {
+        this.seam = seam;
+    }
+
+    @Override
+    public Integer get(int index) {
+        return seam[index];
+    }
+
+    @Override
+    public int size() {
+        return seam.length;
+    }
+}
@@ -0,0 +1,181 @@
+package seamcarving;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Carves a sequence of video frames, such as a clip exported as PNG files, to the same size. Each frame is carved with a
+ * {@link TemporalSeamFinder}, which searches for each seam near the corresponding seam of the previous frame, so
+ * consecutive frames lose nearly the same pixels and most seams need only a narrow banded search.
+ * <p>
+ * Since each frame depends on the seams of the previous frame, frames are carved one at a time on a single thread. The
+ * decoding of the following frames and the encoding of the preceding frames run concurrently on a pool of I/O threads,
+ * with a bounded number of frames in flight.
+ *
+ * @see TemporalSeamFinder
+ * @see BatchCarver
+ */
+public class SequenceCarver {
+    /**
+     * The {@link EnergyFunction} for every frame.
+     */
+    private final EnergyFunction f;
+    /**
+     * The {@link TemporalSeamFinder} carrying the seams from one frame to the next.
+     */
+    private final TemporalSeamFinder seamFinder;
+    /**
+     * The number of threads for decoding and encoding frames.
+     */
+    private final int ioThreads;
+    /**
+     * The maximum number of frames decoded but not yet written.
+     */
+    private final int maxInFlight;
+
+    /**
+     * Constructs a sequence carver with the given {@link TemporalSeamFinder}, one I/O thread per core, and up to four
+     * frames in flight per I/O thread.
+     *
+     * @param f          the {@link EnergyFunction} for every frame.
+     * @param seamFinder the {@link TemporalSeamFinder}.
+     */
+    public SequenceCarver(EnergyFunction f, TemporalSeamFinder seamFinder) {
+        this(f, seamFinder, Runtime.getRuntime().availableProcessors(),
+                4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a sequence carver with the given {@link TemporalSeamFinder}, number of I/O threads, and number of frames
+     * in flight.
+     *
+     * @param f           the {@link EnergyFunction} for every frame.
+     * @param seamFinder  the {@link TemporalSeamFinder}.
+     * @param ioThreads   the number of threads for decoding and encoding frames.
+     * @param maxInFlight the maximum number of frames decoded but not yet written.
+     */
+    public SequenceCarver(EnergyFunction f, TemporalSeamFinder seamFinder, int ioThreads, int maxInFlight) {
+        if (f == null || seamFinder == null) {
+            throw new IllegalArgumentException("Arguments cannot be null");
+        } else if (ioThreads <= 0 || maxInFlight <= 0) {
+            throw new IllegalArgumentException("Thread and in-flight counts must be positive");
+        }
+        this.f = f;
+        this.seamFinder = seamFinder;
+        this.ioThreads = ioThreads;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Resizes every PNG frame in the input directory, in order of file name, and writes each result with the same name
+     * to the output directory.
+     *
+     * @param args the input directory, the output directory, the target width and the target height.
+     * @throws IOException          if an error occurs reading or writing a frame.
+     * @throws InterruptedException if interrupted while waiting for the frames.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length != 4) {
+            System.err.println("Usage: SequenceCarver <input directory> <output directory> <width> <height>");
+            return;
+        }
+        File[] files = new File(args[0]).listFiles((dir, name) -> name.toLowerCase().endsWith(".png"));
+        if (files == null) {
+            throw new IOException("Cannot list " + args[0]);
+        }
+        Arrays.sort(files);
+        File output = new File(args[1]);
+        output.mkdirs();
+        List<File> outputs = new ArrayList<>(files.length);
+        for (File file : files) {
+            outputs.add(new File(output, file.getName()));
+        }
+        TemporalSeamFinder seamFinder = new TemporalSeamFinder();
+        long start = System.nanoTime();
+        new SequenceCarver(new DualGradientEnergyFunction(), seamFinder)
+                .carve(Arrays.asList(files), outputs, Integer.parseInt(args[2]), Integer.parseInt(args[3]));
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d frames in %.3f s (%.2f frames/s), %d banded and %d full seam searches%n", files.length,
+                seconds, files.length / seconds, seamFinder.bandedSearches(), seamFinder.fullSearches());
+    }
+
+    /**
+     * Resizes each input frame to the given dimensions and writes it to the corresponding output file.
+     *
+     * @param inputs  the frames, in order.
+     * @param outputs the destination for each frame.
+     * @param width   the target width, no larger than the width of any frame.
+     * @param height  the target height, no larger than the height of any frame.
+     * @throws IOException          if an error occurs reading or writing a frame.
+     * @throws InterruptedException if interrupted while waiting for the frames.
+     */
+    public void carve(List<File> inputs, List<File> outputs, int width, int height)
+            throws IOException, InterruptedException {
+        if (inputs.size() != outputs.size()) {
+            throw new IllegalArgumentException("Expected " + inputs.size() + " outputs, not " + outputs.size());
+        }
+        AtomicInteger count = new AtomicInteger();
+        ExecutorService io = Executors.newFixedThreadPool(ioThreads, runnable -> {
+            Thread thread = new Thread(runnable, "sequence-io-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        ExecutorService carving = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sequence-carve");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        List<CompletableFuture<Void>> written = new ArrayList<>(inputs.size());
+        try {
+            // Carving each frame waits for the previous frame to be carved, which keeps the seams in order.
+            CompletableFuture<Void> carved = CompletableFuture.completedFuture(null);
+            for (int i = 0; i < inputs.size(); i += 1) {
+                File input = inputs.get(i);
+                File output = outputs.get(i);
+                inFlight.acquire();
+                CompletableFuture<Picture> decoded = CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return new Picture(input);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, io);
+                CompletableFuture<Picture> frame = carved.thenCombineAsync(decoded, (ignored, picture) -> {
+                    new SeamCarver(picture, f, seamFinder).resizeTo(width, height);
+                    seamFinder.nextFrame();
+                    return picture;
+                }, carving);
+                carved = frame.thenApply(picture -> null);
+                written.add(frame.thenAcceptAsync(picture -> {
+                    try {
+                        picture.save(output);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, io).whenComplete((ignored, error) -> inFlight.release()));
+            }
+            for (CompletableFuture<Void> future : written) {
+                future.join();
+            }
+        } catch (RuntimeException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            throw e;
+        } finally {
+            io.shutdownNow();
+            carving.shutdownNow();
+        }
+    }
+}
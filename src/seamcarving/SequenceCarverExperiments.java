@@ -0,0 +1,150 @@
+package seamcarving;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compare carving a frame sequence with {@link SequenceCarver} against carving each frame independently with a
+ * {@link DynamicProgrammingSeamFinder}. Each image is turned into two clips: a static shot with a little sensor noise
+ * in every frame, and a slow pan across the image. Jitter is reported as the mean absolute difference of the color
+ * components of consecutive carved frames.
+ *
+ * @see SequenceCarver
+ * @see TemporalSeamFinder
+ */
+class SequenceCarverExperiments {
+    /**
+     * The base directory path for the images.
+     */
+    private static final String BASE_PATH = "data/seamcarving/";
+    /**
+     * The image files (.png) in the {@link #BASE_PATH} to pan across.
+     */
+    private static final String[] FILES = new String[]{
+            "chameleon",
+            "HJoceanSmall"
+    };
+    /**
+     * The number of frames in each sequence.
+     */
+    private static final int FRAMES = 24;
+    /**
+     * The fraction of the width of each image covered by a frame.
+     */
+    private static final double FRAME_WIDTH = 0.8;
+    /**
+     * The fraction of the width and height of each frame kept after carving.
+     */
+    private static final double SCALE = 0.75;
+    /**
+     * The largest change to each color component from sensor noise in the static clips.
+     */
+    private static final int NOISE = 4;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        EnergyFunction f = new DualGradientEnergyFunction();
+        System.out.printf("%-20s  %-6s  %12s  %15s  %12s  %12s  %10s  %7s%n", "File", "Clip", "Frame",
+                "Independent (s)", "Sequence (s)", "Indep jitter", "Seq jitter", "Banded");
+        for (String fileName : FILES) {
+            Picture image = new Picture(new File(BASE_PATH + fileName + ".png"));
+            for (boolean pan : new boolean[]{false, true}) {
+                run(fileName, image, pan, f);
+            }
+        }
+    }
+
+    /**
+     * Writes a clip of the image to a temporary directory, carves it both ways, and prints the results.
+     *
+     * @param fileName the name of the image.
+     * @param image    the image.
+     * @param pan      true to pan across the image, false for a static shot with sensor noise.
+     * @param f        the {@link EnergyFunction}.
+     * @throws IOException          if an error occurs reading or writing a frame.
+     * @throws InterruptedException if interrupted while waiting for the frames.
+     */
+    private static void run(String fileName, Picture image, boolean pan, EnergyFunction f)
+            throws IOException, InterruptedException {
+        int frameWidth = (int) (image.width() * FRAME_WIDTH);
+        int width = (int) (frameWidth * SCALE);
+        int height = (int) (image.height() * SCALE);
+        File directory = Files.createTempDirectory("frames").toFile();
+        List<File> inputs = new ArrayList<>();
+        List<File> outputs = new ArrayList<>();
+        Random random = new Random(373);
+        for (int t = 0; t < FRAMES; t += 1) {
+            int offset = pan ? t * (image.width() - frameWidth) / (FRAMES - 1) : (image.width() - frameWidth) / 2;
+            Picture frame = new Picture(frameWidth, image.height());
+            for (int y = 0; y < frame.height(); y += 1) {
+                for (int x = 0; x < frame.width(); x += 1) {
+                    int rgb = image.get(x + offset, y);
+                    if (!pan) {
+                        int result = 0;
+                        for (int shift = 0; shift < 24; shift += 8) {
+                            int component = ((rgb >> shift) & 0xFF) + random.nextInt(2 * NOISE + 1) - NOISE;
+                            result |= Math.max(0, Math.min(255, component)) << shift;
+                        }
+                        rgb = result;
+                    }
+                    frame.set(x, y, rgb);
+                }
+            }
+            File input = new File(directory, String.format("frame%03d.png", t));
+            frame.save(input);
+            inputs.add(input);
+            outputs.add(new File(directory, String.format("carved%03d.png", t)));
+        }
+
+        long start = System.nanoTime();
+        List<Picture> independent = new ArrayList<>();
+        for (File input : inputs) {
+            SeamCarver seamCarver = new SeamCarver(input, f, new DynamicProgrammingSeamFinder());
+            seamCarver.resizeTo(width, height);
+            independent.add(seamCarver.picture());
+        }
+        double independentTime = (System.nanoTime() - start) / 1e9;
+
+        TemporalSeamFinder seamFinder = new TemporalSeamFinder();
+        start = System.nanoTime();
+        new SequenceCarver(f, seamFinder).carve(inputs, outputs, width, height);
+        double sequenceTime = (System.nanoTime() - start) / 1e9;
+        List<Picture> sequence = new ArrayList<>();
+        for (File output : outputs) {
+            sequence.add(new Picture(output));
+        }
+        long searches = seamFinder.bandedSearches() + seamFinder.fullSearches();
+        System.out.printf("%-20s  %-6s  %12s  %15.3f  %12.3f  %12.2f  %10.2f  %6.1f%%%n", fileName + ".png",
+                pan ? "pan" : "static", frameWidth + "x" + image.height(), independentTime, sequenceTime,
+                jitter(independent), jitter(sequence), 100.0 * seamFinder.bandedSearches() / searches);
+    }
+
+    /**
+     * Returns the mean absolute difference of the color components of consecutive frames.
+     *
+     * @param frames the frames, all of the same size.
+     * @return the mean absolute difference of the color components of consecutive frames.
+     */
+    private static double jitter(List<Picture> frames) {
+        long total = 0;
+        long count = 0;
+        for (int t = 1; t < frames.size(); t += 1) {
+            Picture a = frames.get(t - 1);
+            Picture b = frames.get(t);
+            for (int y = 0; y < a.height(); y += 1) {
+                for (int x = 0; x < a.width(); x += 1) {
+                    int p = a.get(x, y);
+                    int q = b.get(x, y);
+                    for (int shift = 0; shift < 24; shift += 8) {
+                        total += Math.abs(((p >> shift) & 0xFF) - ((q >> shift) & 0xFF));
+                        count += 1;
+                    }
+                }
+            }
+        }
+        return (double) total / count;
+    }
+}
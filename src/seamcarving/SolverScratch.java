@@ -0,0 +1,83 @@
+package seamcarving;
+
+import graphs.IntShortestPathSolver;
+
+/**
+ * An {@link IntShortestPathSolver.Scratch} that lends arrays from the calling thread's {@link Workspace}, so that the
+ * graph seam finders can run {@link IntShortestPathSolver} implementations over and over without allocating their
+ * distances, backpointers and priority queues. Each id of each array type has its own {@link Workspace.Slot}.
+ *
+ * @see AdjacencyListSeamFinder
+ * @see GenerativeSeamFinder
+ */
+final class SolverScratch implements IntShortestPathSolver.Scratch {
+    /**
+     * The scratch shared by the graph seam finders. It holds no state of its own.
+     */
+    static final SolverScratch INSTANCE = new SolverScratch();
+    /**
+     * The number of arrays of each type that a solver can borrow.
+     */
+    private static final int IDS = 4;
+    /**
+     * The slots for the {@code int} arrays, indexed by id.
+     */
+    private static final Workspace.Slot[] INTS = slots();
+    /**
+     * The slots for the {@code double} arrays, indexed by id.
+     */
+    private static final Workspace.Slot[] DOUBLES = slots();
+    /**
+     * The slots for the {@code boolean} arrays, indexed by id.
+     */
+    private static final Workspace.Slot[] BOOLEANS = slots();
+
+    /**
+     * Constructs the shared scratch.
+     */
+    private SolverScratch() {
+    }
+
+    @Override
+    public int[] ints(int id, int length) {
+        return Workspace.get().ints(slot(INTS, id), length);
+    }
+
+    @Override
+    public double[] doubles(int id, int length) {
+        return Workspace.get().doubles(slot(DOUBLES, id), length);
+    }
+
+    @Override
+    public boolean[] booleans(int id, int length) {
+        return Workspace.get().booleans(slot(BOOLEANS, id), length);
+    }
+
+    /**
+     * Returns a new slot for each id.
+     *
+     * @return the new slots.
+     */
+    private static Workspace.Slot[] slots() {
+        Workspace.Slot[] slots = new Workspace.Slot[IDS];
+        for (int i = 0; i < IDS; i += 1) {
+            slots[i] = new Workspace.Slot();
+        }
+        return slots;
+    }
+
+    /**
+     * Returns the slot for the given id.
+     *
+     * @param slots the slots of an array type.
+     * @param id    the id of the array.
+     * @return the slot for the id.
+     * @throws IllegalArgumentException if there is no slot for the id.
+     */
+    private static Workspace.Slot slot(Workspace.Slot[] slots, int id) {
+        if (id < 0 || id >= slots.length) {
+            throw new IllegalArgumentException("No scratch array with id " + id);
+        }
+        return slots[id];
+    }
+}
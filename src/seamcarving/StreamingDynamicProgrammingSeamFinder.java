@@ -0,0 +1,162 @@
+package seamcarving;
+
+/**
+ * Dynamic programming implementation of the {@link SeamFinder} interface for pictures that do not fit in memory, such
+ * as a {@link MappedPicture}. The picture is only ever read in row-major order: vertical seams stream over the picture
+ * one row at a time, while horizontal seams stream over one band of columns at a time, buffering the energies of the
+ * band. Besides a few lines of costs, the only memory kept for the whole picture is a backpointer plane packed into 2
+ * bits per pixel.
+ * <p>
+ * Returns exactly the same seams as {@link DynamicProgrammingSeamFinder}. The buffers are borrowed from the calling
+ * thread's {@link Workspace}, which only holds them softly, so the backpointer plane of a huge picture is reused by the
+ * next call but still released when memory runs low, and an instance can be shared between threads.
+ *
+ * @see DynamicProgrammingSeamFinder
+ * @see MappedPicture
+ * @see SeamFinder
+ */
+public class StreamingDynamicProgrammingSeamFinder implements SeamFinder {
+    /**
+     * Maximum number of energies buffered for a band of columns when finding a horizontal seam.
+     */
+    private static final int MAX_BAND_CELLS = 1 << 22;
+    /**
+     * The costs of the previous line of the DP table.
+     */
+    private static final Workspace.Slot PREVIOUS = new Workspace.Slot();
+    /**
+     * The costs of the current line of the DP table.
+     */
+    private static final Workspace.Slot CURRENT = new Workspace.Slot();
+    /**
+     * The energies of the current band of columns when finding a horizontal seam, or of the current row when finding a
+     * vertical seam.
+     */
+    private static final Workspace.Slot BAND = new Workspace.Slot();
+    /**
+     * The offset plus one (0, 1, or 2) to the cheapest neighbor in the previous line for each cell of the DP table,
+     * packed into 2 bits per cell and laid out as in {@link DynamicProgrammingSeamFinder}.
+     */
+    private static final Workspace.Slot EDGE_TO = new Workspace.Slot();
+
+    @Override
+    public int[] findSeamArray(Picture picture, EnergyFunction f) {
+        int width = picture.width();
+        int height = picture.height();
+        Workspace workspace = Workspace.get();
+        double[] previous = workspace.doubles(PREVIOUS, height);
+        double[] current = workspace.doubles(CURRENT, height);
+        long[] edgeTo = workspace.longs(EDGE_TO, words(width, height));
+        int bandWidth = Math.max(1, Math.min(width, MAX_BAND_CELLS / height));
+        double[] band = workspace.doubles(BAND, bandWidth * height);
+        for (int x0 = 0; x0 < width; x0 += bandWidth) {
+            int x1 = Math.min(width, x0 + bandWidth);
+            // Read the band row by row, storing the energies column by column.
+            for (int y = 0; y < height; y += 1) {
+                for (int x = x0; x < x1; x += 1) {
+                    band[(x - x0) * height + y] = f.apply(picture, x, y);
+                }
+            }
+            for (int x = x0; x < x1; x += 1) {
+                fill(x, height, band, (x - x0) * height, previous, current, edgeTo);
+                double[] temp = previous;
+                previous = current;
+                current = temp;
+            }
+        }
+        return backtrack(width, height, previous, edgeTo);
+    }
+
+    @Override
+    public int[] findVerticalSeamArray(Picture picture, EnergyFunction f) {
+        int width = picture.width();
+        int height = picture.height();
+        Workspace workspace = Workspace.get();
+        double[] previous = workspace.doubles(PREVIOUS, width);
+        double[] current = workspace.doubles(CURRENT, width);
+        long[] edgeTo = workspace.longs(EDGE_TO, words(height, width));
+        double[] band = workspace.doubles(BAND, width);
+        for (int y = 0; y < height; y += 1) {
+            f.applyRow(picture, y, band, 0);
+            fill(y, width, band, 0, previous, current, edgeTo);
+            double[] temp = previous;
+            previous = current;
+            current = temp;
+        }
+        return backtrack(height, width, previous, edgeTo);
+    }
+
+    /**
+     * Returns the number of 64-bit words needed for the backpointers of a DP table of the given dimensions.
+     *
+     * @param lines  the number of lines in the DP table.
+     * @param length the number of cells in each line.
+     * @return the number of words in the backpointer plane.
+     */
+    private static int words(int lines, int length) {
+        return Math.toIntExact(((long) lines * length + 31) / 32);
+    }
+
+    /**
+     * Fills line i of the DP table from the energies of its cells and the costs of the previous line.
+     *
+     * @param i        the line to fill.
+     * @param length   the number of cells in each line.
+     * @param energies the energies of the cells in the line.
+     * @param offset   the index of the energy of the first cell in the line.
+     * @param previous the costs of the previous line, unused for the first line.
+     * @param current  the destination for the costs of the line.
+     * @param edgeTo   the backpointer plane.
+     */
+    private static void fill(int i, int length, double[] energies, int offset, double[] previous, double[] current,
+                             long[] edgeTo) {
+        if (i == 0) {
+            System.arraycopy(energies, offset, current, 0, length);
+            return;
+        }
+        long line = (long) i * length;
+        for (int j = 0; j < length; j += 1) {
+            double min = Double.POSITIVE_INFINITY;
+            int mink = j;
+            for (int k = j - 1; k <= j + 1; k += 1) {
+                if (k >= 0 && k < length && previous[k] < min) {
+                    min = previous[k];
+                    mink = k;
+                }
+            }
+            long cell = line + j;
+            int word = (int) (cell >>> 5);
+            int shift = (int) (cell & 31) << 1;
+            edgeTo[word] = (edgeTo[word] & ~(0b11L << shift)) | ((long) (mink - j + 1) << shift);
+            current[j] = energies[offset + j] + min;
+        }
+    }
+
+    /**
+     * Returns the minimum-cost seam by following the backpointers from the cheapest cell in the last line.
+     *
+     * @param lines  the number of lines in the DP table.
+     * @param length the number of cells in each line.
+     * @param last   the costs of the last line of the DP table.
+     * @param edgeTo the backpointer plane.
+     * @return an array of the pixel index to remove from each line.
+     */
+    private static int[] backtrack(int lines, int length, double[] last, long[] edgeTo) {
+        int[] path = new int[lines];
+        double min = Double.POSITIVE_INFINITY;
+        int minj = 0;
+        for (int j = 0; j < length; j += 1) {
+            if (last[j] < min) {
+                min = last[j];
+                minj = j;
+            }
+        }
+        path[lines - 1] = minj;
+        for (int i = lines - 1; i > 0; i -= 1) {
+            long cell = (long) i * length + minj;
+            minj += (int) ((edgeTo[(int) (cell >>> 5)] >>> ((cell & 31) << 1)) & 0b11) - 1;
+            path[i - 1] = minj;
+        }
+        return path;
+    }
+}
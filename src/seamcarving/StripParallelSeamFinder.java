@@ -0,0 +1,217 @@
+package seamcarving;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Strip-parallel implementation of the {@link SeamFinder} interface for pictures that are much longer in the direction
+ * of the seam than across it, such as horizontal seams through a panorama. The DP lines are split into strips that
+ * overlap their neighbors by a few lines, and the minimum-energy seam of each strip is found concurrently on a
+ * {@link ForkJoinPool}. The strip seams are then stitched together by an exact DP over each overlap that connects the
+ * seam of one strip to the seam of the next. If the two seams are too far apart to meet within the overlap, the next
+ * strip is searched again starting from the end of the stitched seam.
+ * <p>
+ * Unlike {@link ParallelDynamicProgrammingSeamFinder}, which splits each line across threads and so needs long lines,
+ * this finder splits the picture along the seam and so suits short lines. The returned seam is not guaranteed to have
+ * minimum cost, since each strip only sees its own pixels. Pictures with no more than one strip of lines are searched
+ * exactly. Lines and cells are as in {@link DynamicProgrammingSeamFinder}.
+ *
+ * @see SeamFinder
+ * @see DynamicProgrammingSeamFinder
+ * @see ParallelDynamicProgrammingSeamFinder
+ */
+public class StripParallelSeamFinder implements SeamFinder {
+    /**
+     * The costs of the previous line of the DP table.
+     */
+    private static final Workspace.Slot PREVIOUS = new Workspace.Slot();
+    /**
+     * The costs of the current line of the DP table.
+     */
+    private static final Workspace.Slot CURRENT = new Workspace.Slot();
+    /**
+     * The energies of the current line of the DP table.
+     */
+    private static final Workspace.Slot ENERGIES = new Workspace.Slot();
+    /**
+     * The offset (-1, 0, or +1) to the cheapest neighbor in the previous line for each cell of a strip's DP table.
+     */
+    private static final Workspace.Slot EDGE_TO = new Workspace.Slot();
+    /**
+     * The {@link ForkJoinPool} for finding the seams of the strips.
+     */
+    private final ForkJoinPool pool;
+    /**
+     * The number of lines in each strip, not counting the overlap with the previous strip.
+     */
+    private final int stripLines;
+    /**
+     * The number of lines shared by consecutive strips.
+     */
+    private final int overlap;
+
+    /**
+     * Constructs an instance using the common {@link ForkJoinPool}, with strips of 1024 lines overlapping by 32 lines.
+     */
+    public StripParallelSeamFinder() {
+        this(ForkJoinPool.commonPool(), 1024, 32);
+    }
+
+    /**
+     * Constructs an instance using the given {@link ForkJoinPool} and strip dimensions.
+     *
+     * @param pool       the pool for finding the seams of the strips.
+     * @param stripLines the number of lines in each strip, not counting the overlap with the previous strip.
+     * @param overlap    the number of lines shared by consecutive strips.
+     */
+    public StripParallelSeamFinder(ForkJoinPool pool, int stripLines, int overlap) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool cannot be null");
+        } else if (overlap < 1 || stripLines <= overlap) {
+            throw new IllegalArgumentException("Invalid strip lines " + stripLines + " and overlap " + overlap);
+        }
+        this.pool = pool;
+        this.stripLines = stripLines;
+        this.overlap = overlap;
+    }
+
+    @Override
+    public int[] findSeamArray(Picture picture, EnergyFunction f) {
+        return find(picture, f, false);
+    }
+
+    @Override
+    public int[] findVerticalSeamArray(Picture picture, EnergyFunction f) {
+        return find(picture, f, true);
+    }
+
+    /**
+     * Returns a low-energy seam in the given orientation, found strip by strip.
+     *
+     * @param picture  the {@link Picture}.
+     * @param f        the {@link EnergyFunction}.
+     * @param vertical true to find a vertical seam in row-major order, false to find a horizontal seam.
+     * @return an array of the pixels to remove.
+     */
+    private int[] find(Picture picture, EnergyFunction f, boolean vertical) {
+        int lines = vertical ? picture.height() : picture.width();
+        int length = vertical ? picture.width() : picture.height();
+        int strips = (lines + stripLines - 1) / stripLines;
+        if (strips == 1) {
+            return search(picture, f, vertical, length, 0, lines, -1, -1);
+        }
+        // Strip k covers its own lines plus the last overlap lines of strip k - 1.
+        List<RecursiveTask<int[]>> tasks = new ArrayList<>(strips);
+        for (int k = 0; k < strips; k += 1) {
+            int from = Math.max(0, k * stripLines - overlap);
+            int to = Math.min(lines, (k + 1) * stripLines);
+            tasks.add(new RecursiveTask<>() {
+                @Override
+                protected int[] compute() {
+                    return search(picture, f, vertical, length, from, to, -1, -1);
+                }
+            });
+        }
+        pool.invoke(new RecursiveTask<Void>() {
+            @Override
+            protected Void compute() {
+                ForkJoinTask.invokeAll(tasks);
+                return null;
+            }
+        });
+
+        int[] seam = new int[lines];
+        int[] first = tasks.get(0).join();
+        System.arraycopy(first, 0, seam, 0, first.length);
+        for (int k = 1; k < strips; k += 1) {
+            int from = k * stripLines - overlap;
+            int to = Math.min(lines, (k + 1) * stripLines);
+            int[] strip = tasks.get(k).join();
+            // Connect the stitched seam before the overlap to the strip's seam after it.
+            int[] bridge = search(picture, f, vertical, length, from, k * stripLines, seam[from - 1],
+                    strip[overlap]);
+            if (bridge != null) {
+                System.arraycopy(bridge, 0, seam, from, bridge.length);
+                System.arraycopy(strip, overlap, seam, k * stripLines, to - k * stripLines);
+            } else {
+                strip = search(picture, f, vertical, length, from, to, seam[from - 1], -1);
+                System.arraycopy(strip, 0, seam, from, strip.length);
+            }
+        }
+        return seam;
+    }
+
+    /**
+     * Returns the minimum-energy seam over the lines from {@code from} to {@code to}, optionally constrained to continue
+     * from a cell in the line before {@code from} and to lead into a cell in the line at {@code to}.
+     *
+     * @param picture  the {@link Picture}.
+     * @param f        the {@link EnergyFunction}.
+     * @param vertical true if the lines are the rows of the picture, false if they are the columns.
+     * @param length   the number of cells in each line.
+     * @param from     the first line, inclusive.
+     * @param to       the last line, exclusive.
+     * @param enter    the cell in the line before {@code from} that the seam must continue from, or -1 if any.
+     * @param exit     the cell in the line at {@code to} that the seam must lead into, or -1 if any.
+     * @return the cell to remove from each line, or null if no seam satisfies the constraints.
+     */
+    private static int[] search(Picture picture, EnergyFunction f, boolean vertical, int length, int from, int to,
+                                int enter, int exit) {
+        Workspace workspace = Workspace.get();
+        double[] previous = workspace.doubles(PREVIOUS, length);
+        double[] current = workspace.doubles(CURRENT, length);
+        double[] energies = workspace.doubles(ENERGIES, length);
+        int lines = to - from;
+        byte[] edgeTo = workspace.bytes(EDGE_TO, lines * length);
+        for (int i = 0; i < lines; i += 1) {
+            if (vertical) {
+                f.applyRow(picture, from + i, energies, 0);
+            } else {
+                f.applyColumn(picture, from + i, energies, 0);
+            }
+            if (i == 0) {
+                for (int j = 0; j < length; j += 1) {
+                    previous[j] = enter < 0 || Math.abs(j - enter) <= 1 ? energies[j] : Double.POSITIVE_INFINITY;
+                }
+                continue;
+            }
+            int line = i * length;
+            for (int j = 0; j < length; j += 1) {
+                double min = Double.POSITIVE_INFINITY;
+                int mink = j;
+                for (int k = j - 1; k <= j + 1; k += 1) {
+                    if (k >= 0 && k < length && previous[k] < min) {
+                        min = previous[k];
+                        mink = k;
+                    }
+                }
+                edgeTo[line + j] = (byte) (mink - j);
+                current[j] = energies[j] + min;
+            }
+            double[] temp = previous;
+            previous = current;
+            current = temp;
+        }
+        double min = Double.POSITIVE_INFINITY;
+        int minj = -1;
+        for (int j = 0; j < length; j += 1) {
+            if ((exit < 0 || Math.abs(j - exit) <= 1) && previous[j] < min) {
+                min = previous[j];
+                minj = j;
+            }
+        }
+        if (minj < 0) {
+            return null;
+        }
+        int[] seam = new int[lines];
+        seam[lines - 1] = minj;
+        for (int i = lines - 1; i > 0; i -= 1) {
+            minj += edgeTo[i * length + minj];
+            seam[i - 1] = minj;
+        }
+        return seam;
+    }
+}
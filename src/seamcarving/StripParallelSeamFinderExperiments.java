@@ -0,0 +1,87 @@
+package seamcarving;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Compare the time and seam cost of {@link StripParallelSeamFinder} against the exact
+ * {@link DynamicProgrammingSeamFinder} for horizontal seams through panoramas. Each image is tiled side by side into a
+ * wide picture, and the gap is reported as the percentage by which the stitched seam costs more than the minimum-cost
+ * seam.
+ *
+ * @see StripParallelSeamFinder
+ * @see DynamicProgrammingSeamFinder
+ */
+class StripParallelSeamFinderExperiments {
+    /**
+     * The base directory path for the images.
+     */
+    private static final String BASE_PATH = "data/seamcarving/";
+    /**
+     * The image files (.png) in the {@link #BASE_PATH} to tile.
+     */
+    private static final String[] FILES = new String[]{
+            "chameleon",
+            "HJoceanSmall"
+    };
+    /**
+     * Number of copies of each image placed side by side.
+     */
+    private static final int[] TILES = new int[]{8, 16, 32};
+    /**
+     * Number of trials per image. Making this smaller means experiments run faster.
+     */
+    private static final int NUM_TRIALS = 3;
+
+    public static void main(String[] args) throws IOException {
+        EnergyFunction f = new DualGradientEnergyFunction();
+        SeamFinder exact = new DynamicProgrammingSeamFinder();
+        SeamFinder strips = new StripParallelSeamFinder();
+        System.out.printf("%-20s  %12s  %10s  %10s  %12s  %12s%n",
+                "File", "Size", "DP (s)", "Strips (s)", "DP cost", "Cost gap");
+        for (String fileName : FILES) {
+            Picture original = new Picture(new File(BASE_PATH + fileName + ".png"));
+            for (int tiles : TILES) {
+                Picture picture = new Picture(original.width() * tiles, original.height());
+                for (int y = 0; y < picture.height(); y += 1) {
+                    for (int x = 0; x < picture.width(); x += 1) {
+                        picture.set(x, y, original.get(x % original.width(), y));
+                    }
+                }
+                double exactTime = 0.0;
+                double stripTime = 0.0;
+                int[] exactSeam = null;
+                int[] stripSeam = null;
+                for (int i = 0; i < NUM_TRIALS; i += 1) {
+                    long start = System.nanoTime();
+                    exactSeam = exact.findSeamArray(picture, f);
+                    exactTime += (System.nanoTime() - start) / 1e9;
+                    start = System.nanoTime();
+                    stripSeam = strips.findSeamArray(picture, f);
+                    stripTime += (System.nanoTime() - start) / 1e9;
+                }
+                double exactCost = cost(picture, f, exactSeam);
+                double stripCost = cost(picture, f, stripSeam);
+                System.out.printf("%-20s  %12s  %10.4f  %10.4f  %12.1f  %11.2f%%%n", fileName + ".png",
+                        picture.width() + "x" + picture.height(), exactTime / NUM_TRIALS, stripTime / NUM_TRIALS,
+                        exactCost, 100 * (stripCost - exactCost) / exactCost);
+            }
+        }
+    }
+
+    /**
+     * Returns the total energy of the pixels in the horizontal seam.
+     *
+     * @param picture the {@link Picture}.
+     * @param f       the {@link EnergyFunction}.
+     * @param seam    the horizontal seam.
+     * @return the total energy of the pixels in the seam.
+     */
+    private static double cost(Picture picture, EnergyFunction f, int[] seam) {
+        double total = 0.0;
+        for (int x = 0; x < seam.length; x += 1) {
+            total += f.apply(picture, x, seam[x]);
+        }
+        return total;
+    }
+}
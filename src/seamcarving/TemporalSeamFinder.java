@@ -0,0 +1,241 @@
+package seamcarving;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Implementation of the {@link SeamFinder} interface for carving consecutive frames of a video to the same size. The
+ * n-th seam found in each frame is searched for only within a band of {@link #radius} cells around the n-th seam found
+ * in the previous frame, as in {@link PyramidSeamFinder}, so neighboring frames lose nearly the same pixels and the
+ * carved video does not jitter. If the banded seam costs more than the previous frame's seam by more than the
+ * tolerance, as after a cut or fast motion, the frame is searched in full with a {@link DynamicProgrammingSeamFinder}.
+ * <p>
+ * Seams must be found in the same order for every frame, as {@link SeamCarver#resizeTo(int, int)} does, and
+ * {@link #nextFrame()} must be called between frames. An instance therefore carves one sequence at a time and must not
+ * be shared between threads.
+ *
+ * @see SequenceCarver
+ * @see PyramidSeamFinder
+ * @see DynamicProgrammingSeamFinder
+ */
+public class TemporalSeamFinder implements SeamFinder {
+    /**
+     * The first cell in the band of each line.
+     */
+    private static final Workspace.Slot LOW = new Workspace.Slot();
+    /**
+     * The number of cells on each side of the previous frame's seam that are searched.
+     */
+    private final int radius;
+    /**
+     * The fraction by which a banded seam may cost more than the previous frame's seam before a full search.
+     */
+    private final double tolerance;
+    /**
+     * The {@link SeamFinder} for full searches.
+     */
+    private final DynamicProgrammingSeamFinder fullFinder = new DynamicProgrammingSeamFinder();
+    /**
+     * The vertical seams and costs found in the previous frame, in the order they were found.
+     */
+    private List<Seam> previousVertical = new ArrayList<>();
+    /**
+     * The horizontal seams and costs found in the previous frame, in the order they were found.
+     */
+    private List<Seam> previousHorizontal = new ArrayList<>();
+    /**
+     * The vertical seams and costs found so far in the current frame, in the order they were found.
+     */
+    private List<Seam> currentVertical = new ArrayList<>();
+    /**
+     * The horizontal seams and costs found so far in the current frame, in the order they were found.
+     */
+    private List<Seam> currentHorizontal = new ArrayList<>();
+    /**
+     * The number of seams found with a search restricted to the band around the previous frame's seam.
+     */
+    private long banded;
+    /**
+     * The number of seams found with a search of the whole frame.
+     */
+    private long full;
+
+    /**
+     * A seam found in a frame and its total energy.
+     */
+    private static class Seam {
+        /**
+         * The pixel index to remove from each line.
+         */
+        final int[] indices;
+        /**
+         * The total energy of the pixels in the seam.
+         */
+        final double cost;
+
+        /**
+         * Constructs a seam with the given pixels and total energy.
+         *
+         * @param indices the pixel index to remove from each line.
+         * @param cost    the total energy of the pixels in the seam.
+         */
+        Seam(int[] indices, double cost) {
+            this.indices = indices;
+            this.cost = cost;
+        }
+    }
+
+    /**
+     * Constructs a finder that searches within eight pixels of the previous frame's seams, and searches in full when a
+     * seam costs more than 25% more than in the previous frame.
+     */
+    public TemporalSeamFinder() {
+        this(8, 0.25);
+    }
+
+    /**
+     * Constructs a finder that searches within the given radius of the previous frame's seams.
+     *
+     * @param radius    the number of cells on each side of the previous frame's seam that are searched.
+     * @param tolerance the fraction by which a seam may cost more than in the previous frame before a full search.
+     */
+    public TemporalSeamFinder(int radius, double tolerance) {
+        if (radius < 1) {
+            throw new IllegalArgumentException("Radius must be positive: " + radius);
+        } else if (!(tolerance >= 0.0)) {
+            throw new IllegalArgumentException("Tolerance cannot be negative: " + tolerance);
+        }
+        this.radius = radius;
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * Starts the next frame: the seams found so far become the guides for the seams of the next frame.
+     */
+    public void nextFrame() {
+        List<Seam> temp = previousVertical;
+        previousVertical = currentVertical;
+        currentVertical = temp;
+        currentVertical.clear();
+        temp = previousHorizontal;
+        previousHorizontal = currentHorizontal;
+        currentHorizontal = temp;
+        currentHorizontal.clear();
+    }
+
+    /**
+     * Returns the number of seams found with a search restricted to the band around the previous frame's seam.
+     *
+     * @return the number of seams found with a banded search.
+     */
+    public long bandedSearches() {
+        return banded;
+    }
+
+    /**
+     * Returns the number of seams found with a search of the whole frame.
+     *
+     * @return the number of seams found with a full search.
+     */
+    public long fullSearches() {
+        return full;
+    }
+
+    @Override
+    public int[] findSeamArray(Picture picture, EnergyFunction f) {
+        return find(picture, f, false);
+    }
+
+    @Override
+    public int[] findVerticalSeamArray(Picture picture, EnergyFunction f) {
+        return find(picture, f, true);
+    }
+
+    /**
+     * Returns a seam in the given orientation near the corresponding seam of the previous frame, or a minimum-energy
+     * seam if there is no corresponding seam or the costs diverge.
+     *
+     * @param picture  the {@link Picture}.
+     * @param f        the {@link EnergyFunction}.
+     * @param vertical true to find a vertical seam, false to find a horizontal seam.
+     * @return an array of the pixels to remove.
+     */
+    private int[] find(Picture picture, EnergyFunction f, boolean vertical) {
+        List<Seam> previous = vertical ? previousVertical : previousHorizontal;
+        List<Seam> current = vertical ? currentVertical : currentHorizontal;
+        int lines = vertical ? picture.height() : picture.width();
+        int length = vertical ? picture.width() : picture.height();
+        Seam guide = current.size() < previous.size() ? previous.get(current.size()) : null;
+        Seam seam = null;
+        if (guide != null && guide.indices.length == lines && max(guide.indices) < length) {
+            seam = search(picture, f, vertical, guide.indices);
+            if (seam.cost > guide.cost * (1.0 + tolerance)) {
+                seam = null;
+            } else {
+                banded += 1;
+            }
+        }
+        if (seam == null) {
+            int[] indices = vertical ? fullFinder.findVerticalSeamArray(picture, f) : fullFinder.findSeamArray(picture, f);
+            seam = new Seam(indices, cost(picture, f, vertical, indices));
+            full += 1;
+        }
+        current.add(seam);
+        return seam.indices.clone();
+    }
+
+    /**
+     * Returns the largest index in the seam.
+     *
+     * @param indices the seam.
+     * @return the largest index in the seam.
+     */
+    private static int max(int[] indices) {
+        int result = 0;
+        for (int index : indices) {
+            result = Math.max(result, index);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the total energy of the pixels in the seam.
+     *
+     * @param picture  the {@link Picture}.
+     * @param f        the {@link EnergyFunction}.
+     * @param vertical true for a vertical seam, false for a horizontal seam.
+     * @param indices  the seam.
+     * @return the total energy of the pixels in the seam.
+     */
+    private static double cost(Picture picture, EnergyFunction f, boolean vertical, int[] indices) {
+        double total = 0.0;
+        for (int i = 0; i < indices.length; i += 1) {
+            total += vertical ? f.apply(picture, indices[i], i) : f.apply(picture, i, indices[i]);
+        }
+        return total;
+    }
+
+    /**
+     * Returns the minimum-energy seam of the picture among the seams within {@link #radius} cells of the guide seam.
+     * Lines and cells are as in {@link DynamicProgrammingSeamFinder}.
+     *
+     * @param picture  the {@link Picture}.
+     * @param f        the {@link EnergyFunction}.
+     * @param vertical true to find a vertical seam, false to find a horizontal seam.
+     * @param guide    the seam of the previous frame.
+     * @return the minimum-energy seam within the band and its cost.
+     */
+    private Seam search(Picture picture, EnergyFunction f, boolean vertical, int[] guide) {
+        int lines = vertical ? picture.height() : picture.width();
+        int length = vertical ? picture.width() : picture.height();
+        // Consecutive guide cells differ by at most one, so consecutive bands always overlap.
+        int band = Math.min(2 * radius + 1, length);
+        int[] low = Workspace.get().ints(LOW, lines);
+        for (int i = 0; i < lines; i += 1) {
+            low[i] = Math.max(0, Math.min(guide[i] - radius, length - band));
+        }
+        int[] seam = new int[lines];
+        double cost = BandedSeamSearch.search(picture, f, vertical, low, band, seam);
+        return new Seam(seam, cost);
+    }
+}
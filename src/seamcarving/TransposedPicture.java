@@ -0,0 +1,51 @@
+package seamcarving;
+
+import java.io.File;
+
+/**
+ * Read-only transposed view of a {@link Picture} that flips the x/y and width/height access, so that vertical seams in
+ * the underlying picture can be found as horizontal seams in the view.
+ *
+ * @see Picture
+ * @see SeamFinder#findVerticalSeam(Picture, EnergyFunction)
+ */
+class TransposedPicture extends Picture {
+    /**
+     * The underlying {@link Picture}.
+     */
+    private final Picture picture;
+
+    /**
+     * Constructs a transposed view of the given picture.
+     *
+     * @param picture the underlying picture.
+     */
+    TransposedPicture(Picture picture) {
+        this.picture = picture;
+    }
+
+    @Override
+    public int get(int x, int y) {
+        return picture.get(y, x); // (x, y) -> (y, x)
+    }
+
+    @Override
+    public void set(int x, int y, int rgb) {
+        throw new UnsupportedOperationException("Transposed picture is immutable");
+    }
+
+    @Override
+    public int width() {
+        return picture.height();
+    }
+
+    @Override
+    public int height() {
+        return picture.width();
+    }
+
+    @Override
+    public void save(File file) {
+        throw new UnsupportedOperationException("Transposed picture cannot be saved");
+    }
+}
@@ -0,0 +1,177 @@
+package seamcarving;
+
+import java.lang.ref.SoftReference;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-thread scratch arrays for seam finders and energy functions that run many times on pictures of similar sizes.
+ * Each caller declares a {@link Slot} for every array it needs and borrows the array from the current thread's
+ * workspace with, for example, {@link #doubles(Slot, int)}. Arrays are only reallocated when a larger one is requested,
+ * so repeated calls on the same thread allocate nothing once the arrays are large enough.
+ * <p>
+ * Between borrows, arrays are only softly reachable, so the garbage collector can reclaim them when memory runs low or
+ * after they have gone unused for a while, even if their thread never runs another seam search. A thread that once
+ * handled a very large picture therefore does not hold on to its arrays forever.
+ * <p>
+ * Borrowed arrays are not cleared and may be larger than requested. An array belongs to its slot until the next time
+ * the same slot is borrowed on the same thread, so each slot must only be used by one caller at a time.
+ *
+ * @see Slot
+ * @see DynamicProgrammingSeamFinder
+ */
+public final class Workspace {
+    /**
+     * The number of slots created so far, used to assign slot ids.
+     */
+    private static final AtomicInteger SLOTS = new AtomicInteger();
+    /**
+     * The workspace of each thread.
+     */
+    private static final ThreadLocal<Workspace> WORKSPACES = ThreadLocal.withInitial(Workspace::new);
+    /**
+     * The number of arrays allocated by all workspaces.
+     */
+    private static final AtomicLong ALLOCATIONS = new AtomicLong();
+    /**
+     * The array borrowed through each slot, indexed by slot id.
+     */
+    private SoftReference<?>[] arrays = new SoftReference<?>[0];
+
+    /**
+     * Handle for one scratch array in every thread's workspace.
+     */
+    public static final class Slot {
+        /**
+         * The index of this slot's array in each workspace.
+         */
+        private final int id = SLOTS.getAndIncrement();
+    }
+
+    /**
+     * Constructs an empty workspace.
+     */
+    private Workspace() {
+    }
+
+    /**
+     * Returns the current thread's workspace.
+     *
+     * @return the current thread's workspace.
+     */
+    public static Workspace get() {
+        return WORKSPACES.get();
+    }
+
+    /**
+     * Returns the number of arrays allocated by all workspaces, for checking that a hot path no longer allocates.
+     *
+     * @return the number of arrays allocated by all workspaces.
+     */
+    public static long allocations() {
+        return ALLOCATIONS.get();
+    }
+
+    /**
+     * Returns a {@code double[]} of at least the given length.
+     *
+     * @param slot   the slot to borrow.
+     * @param length the minimum length.
+     * @return a {@code double[]} of at least the given length with unspecified contents.
+     */
+    public double[] doubles(Slot slot, int length) {
+        Object array = array(slot);
+        if (!(array instanceof double[]) || ((double[]) array).length < length) {
+            array = allocate(slot, new double[length]);
+        }
+        return (double[]) array;
+    }
+
+    /**
+     * Returns an {@code int[]} of at least the given length.
+     *
+     * @param slot   the slot to borrow.
+     * @param length the minimum length.
+     * @return an {@code int[]} of at least the given length with unspecified contents.
+     */
+    public int[] ints(Slot slot, int length) {
+        Object array = array(slot);
+        if (!(array instanceof int[]) || ((int[]) array).length < length) {
+            array = allocate(slot, new int[length]);
+        }
+        return (int[]) array;
+    }
+
+    /**
+     * Returns a {@code long[]} of at least the given length.
+     *
+     * @param slot   the slot to borrow.
+     * @param length the minimum length.
+     * @return a {@code long[]} of at least the given length with unspecified contents.
+     */
+    public long[] longs(Slot slot, int length) {
+        Object array = array(slot);
+        if (!(array instanceof long[]) || ((long[]) array).length < length) {
+            array = allocate(slot, new long[length]);
+        }
+        return (long[]) array;
+    }
+
+    /**
+     * Returns a {@code byte[]} of at least the given length.
+     *
+     * @param slot   the slot to borrow.
+     * @param length the minimum length.
+     * @return a {@code byte[]} of at least the given length with unspecified contents.
+     */
+    public byte[] bytes(Slot slot, int length) {
+        Object array = array(slot);
+        if (!(array instanceof byte[]) || ((byte[]) array).length < length) {
+            array = allocate(slot, new byte[length]);
+        }
+        return (byte[]) array;
+    }
+
+    /**
+     * Returns a {@code boolean[]} of at least the given length.
+     *
+     * @param slot   the slot to borrow.
+     * @param length the minimum length.
+     * @return a {@code boolean[]} of at least the given length with unspecified contents.
+     */
+    public boolean[] booleans(Slot slot, int length) {
+        Object array = array(slot);
+        if (!(array instanceof boolean[]) || ((boolean[]) array).length < length) {
+            array = allocate(slot, new boolean[length]);
+        }
+        return (boolean[]) array;
+    }
+
+    /**
+     * Returns the array currently held for the slot, or null if there is none or it has been reclaimed.
+     *
+     * @param slot the slot.
+     * @return the array currently held for the slot, or null if there is none or it has been reclaimed.
+     */
+    private Object array(Slot slot) {
+        SoftReference<?> reference = slot.id < arrays.length ? arrays[slot.id] : null;
+        return reference == null ? null : reference.get();
+    }
+
+    /**
+     * Stores the newly allocated array for the slot.
+     *
+     * @param slot  the slot.
+     * @param array the newly allocated array.
+     * @return the array.
+     */
+    private Object allocate(Slot slot, Object array) {
+        if (slot.id >= arrays.length) {
+            arrays = Arrays.copyOf(arrays, SLOTS.get());
+        }
+        arrays[slot.id] = new SoftReference<>(array);
+        ALLOCATIONS.incrementAndGet();
+        return array;
+    }
+}